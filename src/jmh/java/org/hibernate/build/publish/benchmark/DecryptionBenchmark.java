@@ -0,0 +1,48 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.build.publish.auth.maven.pwd.DecryptionPasswordStrategy;
+import org.hibernate.build.publish.auth.maven.pwd.MavenPasswordCipher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decryption of an encrypted Maven password.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DecryptionBenchmark {
+	private MavenPasswordCipher cipher;
+	private String encryptedPassword;
+
+	@Setup
+	public void setUp() throws Exception {
+		cipher = new MavenPasswordCipher();
+		encryptedPassword = SyntheticSettings.encrypt( "secret", SyntheticSettings.MASTER_PASSWORD );
+	}
+
+	@Benchmark
+	public String decrypt() {
+		return DecryptionPasswordStrategy.decrypt( cipher, encryptedPassword, SyntheticSettings.MASTER_PASSWORD );
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.build.publish.auth.Credentials;
+import org.hibernate.build.publish.auth.CredentialsProvider;
+import org.hibernate.build.publish.auth.CredentialsProviderRegistry;
+import org.hibernate.build.publish.util.Helper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookup of credentials through a chain of providers where only the last one knows the repository.  {@link #hit} and
+ * {@link #miss} ask a new registry each time, so that every provider of the chain is asked; {@link #memoizedHit} and
+ * {@link #memoizedMiss} ask the same registry over and over, which remembers the outcome of the first lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LocateCredentialsBenchmark {
+	private static final String REPOSITORY_ID = "known-repository";
+
+	@Param({ "1", "10", "100" })
+	public int chainLength;
+
+	private CredentialsProvider[] chain;
+	private CredentialsProviderRegistry registry;
+
+	@Setup
+	public void setUp() {
+		final Credentials credentials = new Credentials();
+		credentials.setUserName( "user" );
+		credentials.setPassword( "password" );
+
+		chain = new CredentialsProvider[chainLength];
+		for ( int i = 0; i < chainLength - 1; i++ ) {
+			chain[i] = repoId -> null;
+		}
+		chain[chainLength - 1] = repoId -> REPOSITORY_ID.equals( repoId ) ? credentials : null;
+
+		registry = newRegistry();
+	}
+
+	private CredentialsProviderRegistry newRegistry() {
+		final CredentialsProviderRegistry newRegistry = new CredentialsProviderRegistry();
+		for ( CredentialsProvider provider : chain ) {
+			newRegistry.appendAuthenticationProvider( provider );
+		}
+		return newRegistry;
+	}
+
+	/**
+	 * A registry which has not been asked anything yet, created outside of the measurement.
+	 */
+	@State(Scope.Thread)
+	public static class ColdRegistry {
+		private CredentialsProviderRegistry registry;
+
+		@Setup(Level.Invocation)
+		public void setUp(LocateCredentialsBenchmark benchmark) {
+			registry = benchmark.newRegistry();
+		}
+	}
+
+	@Benchmark
+	public Credentials hit(ColdRegistry cold) {
+		return Helper.locateAuthenticationCredentials( REPOSITORY_ID, cold.registry );
+	}
+
+	@Benchmark
+	public Credentials miss(ColdRegistry cold) {
+		return Helper.locateAuthenticationCredentials( "MavenRepo", cold.registry );
+	}
+
+	@Benchmark
+	public Credentials memoizedHit() {
+		return Helper.locateAuthenticationCredentials( REPOSITORY_ID, registry );
+	}
+
+	@Benchmark
+	public Credentials memoizedMiss() {
+		return Helper.locateAuthenticationCredentials( "MavenRepo", registry );
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.benchmark;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.build.publish.auth.Credentials;
+import org.hibernate.build.publish.auth.maven.ServerDefinition;
+import org.hibernate.build.publish.auth.maven.SettingsXmlCredentialsProvider;
+import org.hibernate.build.publish.auth.maven.SettingsXmlReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading of synthetic {@literal settings.xml} files of growing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SettingsParsingBenchmark {
+	@Param({ "10", "100", "1000", "10000" })
+	public int serverCount;
+
+	private File directory;
+	private byte[] settingsContent;
+	private String lookedUpServerId;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		directory = Files.createTempDirectory( "settings-benchmark" ).toFile();
+		final SyntheticSettings settings = SyntheticSettings.generate( directory, serverCount, 10 );
+
+		System.setProperty( SettingsXmlCredentialsProvider.SETTINGS_LOCATION_OVERRIDE, settings.getSettingsFile().getAbsolutePath() );
+		System.setProperty( "settings.security", settings.getSecuritySettingsFile().getAbsolutePath() );
+
+		settingsContent = Files.readAllBytes( settings.getSettingsFile().toPath() );
+		// a server with a clear text password
+		lookedUpServerId = SyntheticSettings.serverId( serverCount - 1 );
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		final File[] files = directory.listFiles();
+		if ( files != null ) {
+			for ( File file : files ) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Benchmark
+	public List<ServerDefinition> readServerDefinitions() throws Exception {
+		return SettingsXmlReader.readServerDefinitions( settingsContent );
+	}
+
+	@Benchmark
+	public Credentials createProviderAndLookup() {
+		return new SettingsXmlCredentialsProvider().determineAuthentication( lookedUpServerId );
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+
+import org.hibernate.build.publish.auth.maven.pwd.MavenPasswordCipher;
+import org.hibernate.build.publish.auth.maven.pwd.PasswordProcessor;
+
+/**
+ * Generator of synthetic Maven {@literal settings.xml} (and matching {@literal settings-security.xml}) files
+ * used by the benchmarks.  Every server is named {@code server-<index>}; every {@code encryptedEvery}-th
+ * server has an encrypted password, the others a clear text one using placeholders and escapes.
+ * <p/>
+ * Can also be run from the command line:
+ * {@code SyntheticSettings <directory> <server count> [encrypted every]}
+ */
+public class SyntheticSettings {
+	/**
+	 * The clear text master password.
+	 */
+	public static final String MASTER_PASSWORD = "benchmark-master";
+
+	private final File settingsFile;
+	private final File securitySettingsFile;
+
+	private SyntheticSettings(File settingsFile, File securitySettingsFile) {
+		this.settingsFile = settingsFile;
+		this.securitySettingsFile = securitySettingsFile;
+	}
+
+	public File getSettingsFile() {
+		return settingsFile;
+	}
+
+	public File getSecuritySettingsFile() {
+		return securitySettingsFile;
+	}
+
+	public static String serverId(int index) {
+		return "server-" + index;
+	}
+
+	/**
+	 * Encrypts (and decorates) the value the way {@literal mvn --encrypt-password} does.
+	 */
+	public static String encrypt(String value, String passPhrase) throws Exception {
+		return new MavenPasswordCipher().encrypt( value, passPhrase );
+	}
+
+	/**
+	 * Writes the settings files into the given directory.
+	 *
+	 * @param serverCount The number of {@literal <server/>} entries
+	 * @param encryptedEvery Every how many servers to use an encrypted password; {@code 0} for none
+	 */
+	public static SyntheticSettings generate(File directory, int serverCount, int encryptedEvery) throws Exception {
+		Files.createDirectories( directory.toPath() );
+
+		final MavenPasswordCipher cipher = new MavenPasswordCipher();
+
+		final File securitySettingsFile = new File( directory, "settings-security.xml" );
+		try ( Writer writer = Files.newBufferedWriter( securitySettingsFile.toPath(), StandardCharsets.UTF_8 ) ) {
+			writer.write( "<settingsSecurity>\n" );
+			writer.write( "  <master>" );
+			writer.write( cipher.encrypt( MASTER_PASSWORD, PasswordProcessor.MASTER_PASSWORD_PASS_PHRASE ) );
+			writer.write( "</master>\n" );
+			writer.write( "</settingsSecurity>\n" );
+		}
+
+		final File settingsFile = new File( directory, "settings.xml" );
+		try ( Writer writer = Files.newBufferedWriter( settingsFile.toPath(), StandardCharsets.UTF_8 ) ) {
+			writer.write( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
+			writer.write( "<settings xmlns=\"http://maven.apache.org/SETTINGS/1.0.0\">\n" );
+			writeMirrors( writer, serverCount );
+			writer.write( "  <servers>\n" );
+			for ( int i = 0; i < serverCount; i++ ) {
+				final boolean encrypted = encryptedEvery > 0 && i % encryptedEvery == 0;
+				writer.write( "    <server>\n" );
+				writer.write( "      <id>" + serverId( i ) + "</id>\n" );
+				writer.write( "      <username>${user.name}-" + i + "</username>\n" );
+				writer.write( "      <password>" );
+				writer.write(
+						encrypted
+								? cipher.encrypt( "secret-" + i, MASTER_PASSWORD )
+								: "clear-\\{" + i + "\\}-${env.BENCHMARK_TOKEN}"
+				);
+				writer.write( "</password>\n" );
+				writer.write( "    </server>\n" );
+			}
+			writer.write( "  </servers>\n" );
+			writeProfiles( writer, serverCount );
+			writer.write( "</settings>\n" );
+		}
+
+		return new SyntheticSettings( settingsFile, securitySettingsFile );
+	}
+
+	private static void writeMirrors(Writer writer, int serverCount) throws IOException {
+		writer.write( "  <mirrors>\n" );
+		for ( int i = 0; i < serverCount / 10; i++ ) {
+			writer.write(
+					String.format(
+							Locale.ROOT,
+							"    <mirror><id>mirror-%1$d</id><url>https://mirror.example.com/%1$d</url><mirrorOf>server-%1$d</mirrorOf></mirror>\n",
+							i
+					)
+			);
+		}
+		writer.write( "  </mirrors>\n" );
+	}
+
+	private static void writeProfiles(Writer writer, int serverCount) throws IOException {
+		writer.write( "  <profiles>\n" );
+		for ( int i = 0; i < serverCount; i++ ) {
+			writer.write(
+					String.format(
+							Locale.ROOT,
+							"    <profile><id>profile-%1$d</id><repositories><repository><id>server-%1$d</id><url>https://repo.example.com/%1$d/</url></repository></repositories></profile>\n",
+							i
+					)
+			);
+		}
+		writer.write( "  </profiles>\n" );
+	}
+
+	public static void main(String[] args) throws Exception {
+		if ( args.length < 2 ) {
+			System.err.println( "Usage: SyntheticSettings <directory> <server count> [encrypted every]" );
+			System.exit( 1 );
+		}
+
+		final SyntheticSettings settings = generate(
+				new File( args[0] ),
+				Integer.parseInt( args[1] ),
+				args.length > 2 ? Integer.parseInt( args[2] ) : 0
+		);
+		System.out.println( "Generated " + settings.getSettingsFile() + " and " + settings.getSecuritySettingsFile() );
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.build.publish.auth.maven.pwd.DefaultPasswordStrategy;
+import org.hibernate.build.publish.auth.maven.pwd.ValueProcessorRegex;
+import org.hibernate.build.publish.auth.maven.pwd.ValueProcessorScanner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Property interpolation of {@literal settings.xml} values and unescaping of clear text passwords.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ValueProcessingBenchmark {
+	@Param({
+			"plain-value-without-placeholders",
+			"${user.name}",
+			"prefix-${user.home}-${env.PATH}-suffix",
+			"${unknown.property}",
+			"pass\\{word\\}"
+	})
+	public String value;
+
+	@Benchmark
+	public String processValue() {
+		return ValueProcessorScanner.INSTANCE.processValue( value );
+	}
+
+	/**
+	 * The former, regular expression based, implementation for comparison.
+	 */
+	@Benchmark
+	@SuppressWarnings("deprecation")
+	public String processValueRegex() {
+		return ValueProcessorRegex.INSTANCE.processValue( value );
+	}
+
+	@Benchmark
+	public String interpretPassword() {
+		return DefaultPasswordStrategy.INSTANCE.interpretPassword( value );
+	}
+}
@@ -6,12 +6,17 @@
  */
 package org.hibernate.build.publish.auth;
 
+import java.io.Serializable;
+
 /**
- * Describes authentication credentials.
+ * Describes authentication credentials.  Serializable, as credentials may end up in the state
+ * Gradle stores in its configuration cache.
  *
  * @author Steve Ebersole
  */
-public class Credentials {
+public class Credentials implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String userName;
     private String password;
     private String privateKey;
@@ -0,0 +1,125 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares a single {@link Credentials} instance (and a single instance of each of their values) among equal
+ * credentials.  Meant to live as long as a build, so that repositories of all projects authenticating against the
+ * same server reference the same objects; unlike {@link String#intern()}, nothing is retained once the build is over.
+ * <p/>
+ * The shared instances are keyed by the values they were interned with, so modifying one does not affect which
+ * instance later lookups get; it is nonetheless visible to everyone sharing it.
+ */
+public class CredentialsInterner {
+	private final ConcurrentHashMap<String,String> values = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Values,Credentials> credentials = new ConcurrentHashMap<>();
+
+	/**
+	 * @return The shared instance equal to the given credentials, or {@code null} if given {@code null}.
+	 */
+	public Credentials intern(Credentials credentials) {
+		if ( credentials == null ) {
+			return null;
+		}
+		return intern(
+				credentials.getUserName(),
+				credentials.getPassword(),
+				credentials.getPrivateKey(),
+				credentials.getPassphrase()
+		);
+	}
+
+	/**
+	 * @return The shared instance with the given values.
+	 */
+	public Credentials intern(String userName, String password, String privateKey, String passphrase) {
+		final Values key = new Values( userName, password, privateKey, passphrase );
+		final Credentials known = credentials.get( key );
+		if ( known != null ) {
+			return known;
+		}
+
+		final Credentials candidate = new Credentials();
+		candidate.setUserName( internValue( userName ) );
+		candidate.setPassword( internValue( password ) );
+		candidate.setPrivateKey( internValue( privateKey ) );
+		candidate.setPassphrase( internValue( passphrase ) );
+		final Credentials raced = credentials.putIfAbsent( key, candidate );
+		return raced == null ? candidate : raced;
+	}
+
+	/**
+	 * @return A new instance with the same (shared) values as the given credentials, or {@code null} if given
+	 * {@code null}.
+	 */
+	public static Credentials copyOf(Credentials credentials) {
+		if ( credentials == null ) {
+			return null;
+		}
+		final Credentials copy = new Credentials();
+		copy.setUserName( credentials.getUserName() );
+		copy.setPassword( credentials.getPassword() );
+		copy.setPrivateKey( credentials.getPrivateKey() );
+		copy.setPassphrase( credentials.getPassphrase() );
+		return copy;
+	}
+
+	private String internValue(String value) {
+		if ( value == null ) {
+			return null;
+		}
+		final String known = values.putIfAbsent( value, value );
+		return known == null ? value : known;
+	}
+
+	/**
+	 * @return The number of distinct credentials.
+	 */
+	public int size() {
+		return credentials.size();
+	}
+
+	private static final class Values {
+		private final String userName;
+		private final String password;
+		private final String privateKey;
+		private final String passphrase;
+		private final int hashCode;
+
+		private Values(String userName, String password, String privateKey, String passphrase) {
+			this.userName = userName;
+			this.password = password;
+			this.privateKey = privateKey;
+			this.passphrase = passphrase;
+			this.hashCode = Objects.hash( userName, password, privateKey, passphrase );
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if ( this == o ) {
+				return true;
+			}
+			if ( !( o instanceof Values ) ) {
+				return false;
+			}
+			final Values that = (Values) o;
+			return hashCode == that.hashCode
+					&& Objects.equals( userName, that.userName )
+					&& Objects.equals( password, that.password )
+					&& Objects.equals( privateKey, that.privateKey )
+					&& Objects.equals( passphrase, that.passphrase );
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
@@ -6,6 +6,8 @@
  */
 package org.hibernate.build.publish.auth;
 
+import java.net.URI;
+
 /**
  * Contract for providers of authentication credentials for authenticating against remote repositories.
  *
@@ -22,4 +24,16 @@ public interface CredentialsProvider {
 	 * @return The authentication details, or {@code null} to indicate none.
 	 */
 	Credentials determineAuthentication(String repoId);
+
+	/**
+	 * Determine the repository identifier this provider associates with the given url, if any.  Only used when
+	 * matching credentials by url is enabled (see {@link CredentialsProviderRegistry#setMatchByUrl}).
+	 *
+	 * @param url The url of the repository.
+	 *
+	 * @return The repository identifier, or {@code null} to indicate none.
+	 */
+	default String determineRepositoryId(URI url) {
+		return null;
+	}
 }
@@ -0,0 +1,61 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Service provider interface for contributing a {@link CredentialsProvider} without any build script: implementations
+ * are discovered through {@link java.util.ServiceLoader} (i.e. listed in
+ * {@literal META-INF/services/org.hibernate.build.publish.auth.CredentialsProviderFactory}) on the class path the
+ * plugin is loaded from.
+ * <p/>
+ * Factories are instantiated when the plugin is applied, so they should be cheap.  The provider itself is only
+ * {@link #create() created} once a lookup reaches it: when no provider asked before it had the credentials, and the
+ * repository is one the factory declares support for.
+ */
+public interface CredentialsProviderFactory {
+	/**
+	 * The priority of the provider reading the Maven settings.
+	 */
+	int MAVEN_SETTINGS_PRIORITY = 0;
+
+	/**
+	 * Providers are asked in decreasing order of priority: those with a priority higher than
+	 * {@value #MAVEN_SETTINGS_PRIORITY} before the Maven settings, the others after them.
+	 */
+	default int getPriority() {
+		return MAVEN_SETTINGS_PRIORITY;
+	}
+
+	/**
+	 * The patterns of the repository ids the provider may have credentials for, in which {@literal *} matches any
+	 * sequence of characters.
+	 *
+	 * @return The patterns, or an empty collection for any repository id
+	 */
+	default Collection<String> getRepositoryIdPatterns() {
+		return Collections.emptySet();
+	}
+
+	/**
+	 * The url prefixes (on whole path segments, see {@link UrlPrefixIndex}) of the repositories the provider may
+	 * map to a repository id (see {@link CredentialsProvider#determineRepositoryId}).
+	 *
+	 * @return The prefixes, or an empty collection for any url
+	 */
+	default Collection<String> getUrlPrefixes() {
+		return Collections.emptySet();
+	}
+
+	/**
+	 * Creates the provider, at most once per {@link DiscoveredProviders}: once per build for the factories discovered
+	 * by the plugin, however many projects it is applied to.
+	 */
+	CredentialsProvider create();
+}
@@ -6,35 +6,382 @@
  */
 package org.hibernate.build.publish.auth;
 
-import java.util.LinkedList;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
-import org.hibernate.build.publish.auth.maven.SettingsXmlCredentialsProvider;
+import org.hibernate.build.publish.jfr.CredentialsEvents;
 
 /**
  *
  * A registry of {@link CredentialsProvider} instances.
+ * <p/>
+ * The outcome of locating credentials for a repository id, including not finding any, is remembered
+ * until the providers change.  Registries set up alike (e.g. one per project, with the same providers) can
+ * {@link #shareResolutions share} what they remember, for as long as their providers do not change.
+ * <p/>
+ * Repositories are normally matched to credentials by name.  When {@link #setMatchByUrl matching by url} is
+ * enabled, the url of the repository is first mapped to a repository id, either through the prefixes declared
+ * with {@link #mapUrl} or by the providers themselves (see {@link CredentialsProvider#determineRepositoryId}),
+ * falling back to the name if that id has no credentials.
+ * <p/>
+ * The credentials located are shared through a {@link CredentialsInterner} among equal credentials;
+ * {@link #locateCredentials} hands out copies of them, which can be modified freely.
+ * <p/>
+ * Besides the providers registered directly, providers can be contributed through {@link CredentialsProviderFactory}
+ * (see {@link #discoverProviders}); those are only created once a lookup reaches them.
  *
  * @author Steve Ebersole
  */
 public class CredentialsProviderRegistry {
-	private final LinkedList<CredentialsProvider> credentialsProviders = new LinkedList<>();
+	private static final CredentialsProvider[] NO_PROVIDERS = new CredentialsProvider[0];
+
+	private volatile CredentialsProvider[] credentialsProviders = NO_PROVIDERS;
+	private volatile ConcurrentHashMap<String,Resolution> resolutionsByRepoId = new ConcurrentHashMap<>();
+
+	private final UrlPrefixIndex urlMappings = new UrlPrefixIndex();
+	private volatile boolean matchByUrl;
+
+	private final Supplier<ResolutionStatistics> statisticsSupplier;
+	private volatile ResolutionStatistics statistics;
+
+	private final Supplier<CredentialsInterner> internerSupplier;
+	private volatile CredentialsInterner interner;
 
 	public CredentialsProviderRegistry() {
+		this.statisticsSupplier = ResolutionStatistics::new;
+		this.internerSupplier = CredentialsInterner::new;
 	}
 
 	public CredentialsProviderRegistry(CredentialsProvider credentialsProvider) {
-		credentialsProviders.add( credentialsProvider );
+		this( credentialsProvider, ResolutionStatistics::new );
+	}
+
+	/**
+	 * @param statistics Supplies the collector of statistics, on first use
+	 */
+	public CredentialsProviderRegistry(CredentialsProvider credentialsProvider, Supplier<ResolutionStatistics> statistics) {
+		this( credentialsProvider, statistics, CredentialsInterner::new );
+	}
+
+	/**
+	 * @param statistics Supplies the collector of statistics, on first use
+	 * @param interner Supplies the interner of the located credentials (usually shared by the whole build), on
+	 * first use
+	 */
+	public CredentialsProviderRegistry(
+			CredentialsProvider credentialsProvider,
+			Supplier<ResolutionStatistics> statistics,
+			Supplier<CredentialsInterner> interner) {
+		this.credentialsProviders = new CredentialsProvider[] { credentialsProvider };
+		this.statisticsSupplier = statistics;
+		this.internerSupplier = interner;
 	}
 
-	public void appendAuthenticationProvider(CredentialsProvider provider) {
-		credentialsProviders.addLast( provider );
+	public synchronized void appendAuthenticationProvider(CredentialsProvider provider) {
+		final CredentialsProvider[] providers = Arrays.copyOf( credentialsProviders, credentialsProviders.length + 1 );
+		providers[providers.length - 1] = provider;
+		credentialsProviders = providers;
+		forgetResolutions();
 	}
 
-	public void prependAuthenticationProvider(CredentialsProvider provider) {
-		credentialsProviders.addFirst( provider );
+	public synchronized void prependAuthenticationProvider(CredentialsProvider provider) {
+		final CredentialsProvider[] providers = new CredentialsProvider[credentialsProviders.length + 1];
+		providers[0] = provider;
+		System.arraycopy( credentialsProviders, 0, providers, 1, credentialsProviders.length );
+		credentialsProviders = providers;
+		forgetResolutions();
+	}
+
+	/**
+	 * Registers the providers of the {@link CredentialsProviderFactory factories} found through
+	 * {@link ServiceLoader} on the class path of this plugin (see {@link #addDiscoveredProviders}).  The providers
+	 * belong to this registry alone; use {@link #addDiscoveredProviders} with a shared {@link DiscoveredProviders}
+	 * to have several registries share them.
+	 */
+	public void discoverProviders() {
+		addDiscoveredProviders( DiscoveredProviders.discover() );
+	}
+
+	/**
+	 * Registers the providers of the given factories, without creating them (see {@link #addDiscoveredProviders}).
+	 */
+	public void addProviderFactories(Iterable<? extends CredentialsProviderFactory> factories) {
+		addDiscoveredProviders( DiscoveredProviders.of( factories ) );
+	}
+
+	/**
+	 * Registers the given providers, without creating them: the ones with a priority higher than
+	 * {@link CredentialsProviderFactory#MAVEN_SETTINGS_PRIORITY} before the providers registered so far, the others
+	 * after them, in decreasing order of priority.
+	 */
+	public synchronized void addDiscoveredProviders(DiscoveredProviders discoveredProviders) {
+		final List<DiscoveredCredentialsProvider> discovered = discoveredProviders.providers();
+		if ( discovered.isEmpty() ) {
+			return;
+		}
+
+		final List<CredentialsProvider> providers = new ArrayList<>( credentialsProviders.length + discovered.size() );
+		for ( DiscoveredCredentialsProvider provider : discovered ) {
+			if ( provider.getPriority() > CredentialsProviderFactory.MAVEN_SETTINGS_PRIORITY ) {
+				providers.add( provider );
+			}
+		}
+		providers.addAll( Arrays.asList( credentialsProviders ) );
+		for ( DiscoveredCredentialsProvider provider : discovered ) {
+			if ( provider.getPriority() <= CredentialsProviderFactory.MAVEN_SETTINGS_PRIORITY ) {
+				providers.add( provider );
+			}
+		}
+		credentialsProviders = providers.toArray( NO_PROVIDERS );
+		forgetResolutions();
+	}
+
+	/**
+	 * Remembers the outcome of lookups in the given instance, shared with other registries whose providers are the
+	 * same as the ones of this registry, until the providers of this registry change.
+	 */
+	public synchronized void shareResolutions(SharedResolutions sharedResolutions) {
+		resolutionsByRepoId = sharedResolutions.resolutionsByRepoId;
+	}
+
+	/**
+	 * Starts remembering afresh, leaving alone what other registries may share.
+	 */
+	private void forgetResolutions() {
+		resolutionsByRepoId = new ConcurrentHashMap<>();
 	}
 
 	public Iterable<CredentialsProvider> providers() {
-		return credentialsProviders;
+		return Collections.unmodifiableList( Arrays.asList( credentialsProviders ) );
+	}
+
+	public ResolutionStatistics getStatistics() {
+		ResolutionStatistics result = statistics;
+		if ( result == null ) {
+			result = statisticsSupplier.get();
+			statistics = result;
+		}
+		return result;
+	}
+
+	public CredentialsInterner getInterner() {
+		CredentialsInterner result = interner;
+		if ( result == null ) {
+			result = internerSupplier.get();
+			interner = result;
+		}
+		return result;
+	}
+
+	public boolean isMatchByUrl() {
+		return matchByUrl;
+	}
+
+	/**
+	 * Whether to match repositories to credentials by their url first (see {@link #resolve(String, URI)}).
+	 */
+	public void setMatchByUrl(boolean matchByUrl) {
+		this.matchByUrl = matchByUrl;
+	}
+
+	/**
+	 * Maps the repositories whose url starts with the given prefix (on whole path segments) to the given repository
+	 * id when {@link #setMatchByUrl matching by url}.  The longest matching prefix wins; prefixes declared here
+	 * take precedence over the ones known to the providers.
+	 */
+	public void mapUrl(String urlPrefix, String repositoryId) {
+		urlMappings.add( urlPrefix, repositoryId );
+	}
+
+	/**
+	 * Determines the repository id the given url maps to, from the declared prefixes first and then from each
+	 * provider in turn.
+	 *
+	 * @return The repository id, or {@code null} if the url is not mapped.
+	 */
+	public String locateRepositoryId(URI url) {
+		final String repositoryId = urlMappings.match( url );
+		if ( repositoryId != null ) {
+			return repositoryId;
+		}
+
+		for ( CredentialsProvider candidate : credentialsProviders ) {
+			final CredentialsProvider provider;
+			if ( candidate instanceof DiscoveredCredentialsProvider ) {
+				final DiscoveredCredentialsProvider discovered = (DiscoveredCredentialsProvider) candidate;
+				provider = discovered.supportsUrl( url ) ? discovered.getProvider() : null;
+				if ( provider == null ) {
+					continue;
+				}
+			}
+			else {
+				provider = candidate;
+			}
+
+			final String providedId = provider.determineRepositoryId( url );
+			if ( providedId != null ) {
+				return providedId;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Locates the credentials for the given repository id, asking each provider in turn until one
+	 * provides credentials with a password.
+	 *
+	 * @param repositoryId The id of the repository
+	 *
+	 * @return A copy of the credentials, or {@code null} if no provider has any.
+	 */
+	public Credentials locateCredentials(String repositoryId) {
+		return CredentialsInterner.copyOf( resolve( repositoryId ).getCredentials() );
+	}
+
+	/**
+	 * Like {@link #locateCredentials}, also telling which provider the credentials come from.
+	 */
+	public Resolution resolve(String repositoryId) {
+		final ResolutionStatistics statistics = getStatistics();
+		statistics.recordLookup( repositoryId );
+
+		final Resolution known = resolutionsByRepoId.get( repositoryId );
+		if ( known != null ) {
+			return known;
+		}
+
+		final CredentialsProvider[] providers = credentialsProviders;
+		final Resolution resolution = resolve( repositoryId, providers, statistics, getInterner() );
+
+		// do not remember the outcome if the providers changed in the meantime
+		synchronized ( this ) {
+			if ( providers == credentialsProviders ) {
+				resolutionsByRepoId.putIfAbsent( repositoryId, resolution.memoized() );
+			}
+		}
+		return resolution;
+	}
+
+	/**
+	 * Like {@link #resolve(String)}, first trying the repository id mapped to the url of the repository when
+	 * {@link #setMatchByUrl matching by url}.
+	 *
+	 * @param repositoryName The name of the repository
+	 * @param url The url of the repository; may be {@code null}
+	 */
+	public Resolution resolve(String repositoryName, URI url) {
+		if ( matchByUrl && url != null ) {
+			final String repositoryId = locateRepositoryId( url );
+			if ( repositoryId != null ) {
+				final Resolution resolution = resolve( repositoryId );
+				if ( resolution.getCredentials() != null || repositoryId.equals( repositoryName ) ) {
+					return resolution;
+				}
+			}
+		}
+		return resolve( repositoryName );
+	}
+
+	private static Resolution resolve(
+			String repositoryId,
+			CredentialsProvider[] providers,
+			ResolutionStatistics statistics,
+			CredentialsInterner interner) {
+		for ( CredentialsProvider candidate : providers ) {
+			final CredentialsProvider provider;
+			if ( candidate instanceof DiscoveredCredentialsProvider ) {
+				// only now is the provider created, if it may have the credentials at all
+				final DiscoveredCredentialsProvider discovered = (DiscoveredCredentialsProvider) candidate;
+				provider = discovered.supportsRepositoryId( repositoryId ) ? discovered.getProvider() : null;
+				if ( provider == null ) {
+					continue;
+				}
+			}
+			else {
+				provider = candidate;
+			}
+
+			final Credentials authentication;
+			try ( CredentialsEvents.Lookup event = CredentialsEvents.lookup( repositoryId, provider ) ) {
+				authentication = provider.determineAuthentication( repositoryId );
+				event.setFound( authentication != null && authentication.getPassword() != null );
+			}
+			statistics.recordProviderCall( provider, authentication != null && authentication.getPassword() != null );
+			if ( authentication == null ) {
+				continue;
+			}
+
+			if ( authentication.getPassword() == null ) {
+				continue;
+			}
+
+			return new Resolution( repositoryId, interner.intern( authentication ), provider, false );
+		}
+
+		return new Resolution( repositoryId, null, null, false );
+	}
+
+	/**
+	 * The outcomes of lookups remembered by several registries (see {@link #shareResolutions}).
+	 */
+	public static final class SharedResolutions {
+		private final ConcurrentHashMap<String,Resolution> resolutionsByRepoId = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * The outcome of locating the credentials for a repository id.
+	 */
+	public static final class Resolution {
+		private final String repositoryId;
+		private final Credentials credentials;
+		private final CredentialsProvider provider;
+		private final boolean memoized;
+
+		private Resolution(String repositoryId, Credentials credentials, CredentialsProvider provider, boolean memoized) {
+			this.repositoryId = repositoryId;
+			this.credentials = credentials;
+			this.provider = provider;
+			this.memoized = memoized;
+		}
+
+		private Resolution memoized() {
+			return new Resolution( repositoryId, credentials, provider, true );
+		}
+
+		/**
+		 * @return The repository id the credentials were looked up by: the name of the repository, or the id its
+		 * url or its mirror maps to.
+		 */
+		public String getRepositoryId() {
+			return repositoryId;
+		}
+
+		/**
+		 * @return The credentials, shared with every repository using equal credentials and therefore not to be
+		 * modified, or {@code null} if no provider has any.
+		 */
+		public Credentials getCredentials() {
+			return credentials;
+		}
+
+		/**
+		 * @return The provider of the credentials, or {@code null} if no provider has any.
+		 */
+		public CredentialsProvider getProvider() {
+			return provider;
+		}
+
+		/**
+		 * @return Whether the outcome was already known from a previous lookup.
+		 */
+		public boolean isMemoized() {
+			return memoized;
+		}
 	}
 }
@@ -0,0 +1,151 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth;
+
+import java.net.URI;
+import java.util.Collection;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stands for the provider of a {@link CredentialsProviderFactory} in a {@link CredentialsProviderRegistry}, creating
+ * it on first use, and only ever asking it about the repositories the factory declares support for.
+ */
+final class DiscoveredCredentialsProvider implements CredentialsProvider {
+	private static final Logger log = LoggerFactory.getLogger( DiscoveredCredentialsProvider.class );
+
+	private final CredentialsProviderFactory factory;
+	private final int priority;
+	private final String[] repositoryIdPatterns;
+	private final UrlPrefixIndex urlPrefixes;
+
+	private volatile CredentialsProvider provider;
+	private volatile boolean failed;
+
+	DiscoveredCredentialsProvider(CredentialsProviderFactory factory) {
+		this.factory = factory;
+		this.priority = factory.getPriority();
+
+		final Collection<String> patterns = factory.getRepositoryIdPatterns();
+		this.repositoryIdPatterns = patterns.toArray( new String[0] );
+
+		this.urlPrefixes = new UrlPrefixIndex();
+		for ( String urlPrefix : factory.getUrlPrefixes() ) {
+			urlPrefixes.add( urlPrefix, urlPrefix );
+		}
+	}
+
+	int getPriority() {
+		return priority;
+	}
+
+	/**
+	 * Whether the provider may have credentials for the given repository id.
+	 */
+	boolean supportsRepositoryId(String repositoryId) {
+		if ( repositoryIdPatterns.length == 0 ) {
+			return true;
+		}
+		for ( String pattern : repositoryIdPatterns ) {
+			if ( matches( pattern, repositoryId ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Whether the provider may map the given url to a repository id.
+	 */
+	boolean supportsUrl(URI url) {
+		return urlPrefixes.isEmpty() || urlPrefixes.match( url ) != null;
+	}
+
+	/**
+	 * Whether the provider was created already.
+	 */
+	boolean isCreated() {
+		return provider != null;
+	}
+
+	/**
+	 * The provider, created on first access.
+	 *
+	 * @return The provider, or {@code null} if it could not be created.
+	 */
+	CredentialsProvider getProvider() {
+		CredentialsProvider result = provider;
+		if ( result == null && !failed ) {
+			synchronized ( this ) {
+				result = provider;
+				if ( result == null && !failed ) {
+					try {
+						result = factory.create();
+					}
+					catch (RuntimeException e) {
+						log.warn( "Unable to create the credentials provider of " + factory.getClass().getName(), e );
+					}
+					if ( result == null ) {
+						failed = true;
+					}
+					provider = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Credentials determineAuthentication(String repoId) {
+		final CredentialsProvider target = supportsRepositoryId( repoId ) ? getProvider() : null;
+		return target == null ? null : target.determineAuthentication( repoId );
+	}
+
+	@Override
+	public String determineRepositoryId(URI url) {
+		final CredentialsProvider target = supportsUrl( url ) ? getProvider() : null;
+		return target == null ? null : target.determineRepositoryId( url );
+	}
+
+	/**
+	 * Matches the value against a pattern in which {@literal *} stands for any sequence of characters.
+	 */
+	static boolean matches(String pattern, String value) {
+		int p = 0;
+		int v = 0;
+		int star = -1;
+		int starMatch = 0;
+		while ( v < value.length() ) {
+			if ( p < pattern.length() && pattern.charAt( p ) == '*' ) {
+				star = p++;
+				starMatch = v;
+			}
+			else if ( p < pattern.length() && pattern.charAt( p ) == value.charAt( v ) ) {
+				p++;
+				v++;
+			}
+			else if ( star >= 0 ) {
+				// let the last star match one more character
+				p = star + 1;
+				v = ++starMatch;
+			}
+			else {
+				return false;
+			}
+		}
+		while ( p < pattern.length() && pattern.charAt( p ) == '*' ) {
+			p++;
+		}
+		return p == pattern.length();
+	}
+
+	@Override
+	public String toString() {
+		return "DiscoveredCredentialsProvider(" + factory.getClass().getName() + ")";
+	}
+}
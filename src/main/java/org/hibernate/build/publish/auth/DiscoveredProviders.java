@@ -0,0 +1,69 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * The providers of a set of {@link CredentialsProviderFactory factories}, in decreasing order of priority, each one
+ * created at most once however many {@link CredentialsProviderRegistry registries} they are
+ * {@link CredentialsProviderRegistry#addDiscoveredProviders added to}.
+ */
+public final class DiscoveredProviders {
+	private final List<DiscoveredCredentialsProvider> providers;
+
+	private DiscoveredProviders(List<DiscoveredCredentialsProvider> providers) {
+		this.providers = providers;
+	}
+
+	/**
+	 * The providers of the factories found through {@link ServiceLoader} on the class path of this plugin.  The
+	 * factories are only looked up once, but each call returns providers of its own.
+	 */
+	public static DiscoveredProviders discover() {
+		return of( DiscoveredFactories.FACTORIES );
+	}
+
+	/**
+	 * The providers of the given factories, none of which is created yet.
+	 */
+	public static DiscoveredProviders of(Iterable<? extends CredentialsProviderFactory> factories) {
+		final List<DiscoveredCredentialsProvider> providers = new ArrayList<>();
+		for ( CredentialsProviderFactory factory : factories ) {
+			providers.add( new DiscoveredCredentialsProvider( factory ) );
+		}
+		// stable, so that equal priorities keep the order of the factories
+		providers.sort( Comparator.comparingInt( DiscoveredCredentialsProvider::getPriority ).reversed() );
+		return new DiscoveredProviders( providers );
+	}
+
+	List<DiscoveredCredentialsProvider> providers() {
+		return providers;
+	}
+
+	/**
+	 * The factories found on the class path of this plugin, looked up once.
+	 */
+	private static class DiscoveredFactories {
+		private static final List<CredentialsProviderFactory> FACTORIES = discover();
+
+		private static List<CredentialsProviderFactory> discover() {
+			final List<CredentialsProviderFactory> factories = new ArrayList<>();
+			for ( CredentialsProviderFactory factory : ServiceLoader.load(
+					CredentialsProviderFactory.class,
+					DiscoveredProviders.class.getClassLoader()
+			) ) {
+				factories.add( factory );
+			}
+			return factories.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList( factories );
+		}
+	}
+}
@@ -0,0 +1,377 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe collector of what happened while resolving credentials (what was looked up, where it was found,
+ * what came from a cache, and how long it took), written as JSON by the {@literal mavenRepoAuthReport} task.
+ * Nothing secret is ever recorded, only repository ids, provider classes, counts and durations.
+ */
+public class ResolutionStatistics {
+	private volatile SettingsRead settingsRead;
+
+	private final ConcurrentHashMap<String,ServerTimings> serverTimingsByRepoId = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String,LongAdder> lookupsByRepoId = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String,LongAdder> callsByProvider = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String,LongAdder> missesByProvider = new ConcurrentHashMap<>();
+	private final ConcurrentLinkedQueue<RepositoryResolution> repositories = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Records the reading and parsing of the settings.
+	 */
+	public void recordSettingsRead(String settingsFile, long nanos, int serverCount, boolean fromCache) {
+		settingsRead = new SettingsRead( settingsFile, nanos, serverCount, fromCache );
+	}
+
+	/**
+	 * Records the interpolation of the values of a server definition.
+	 */
+	public void recordInterpolation(String repoId, long nanos) {
+		serverTimings( repoId ).interpolationNanos = nanos;
+	}
+
+	/**
+	 * Records the decryption of the password of a server definition.
+	 *
+	 * @param fromCache Whether the decrypted password was already known
+	 */
+	public void recordDecryption(String repoId, long nanos, boolean fromCache) {
+		final ServerTimings timings = serverTimings( repoId );
+		timings.decryptionNanos = nanos;
+		timings.decryptionFromCache = fromCache;
+	}
+
+	/**
+	 * Records a lookup of the credentials for a repository id, whether answered by the providers or not.
+	 */
+	public void recordLookup(String repoId) {
+		increment( lookupsByRepoId, repoId );
+	}
+
+	/**
+	 * Records the outcome of asking a particular provider for the credentials of a repository.
+	 */
+	public void recordProviderCall(CredentialsProvider provider, boolean found) {
+		final String providerName = provider.getClass().getName();
+		increment( callsByProvider, providerName );
+		if ( !found ) {
+			increment( missesByProvider, providerName );
+		}
+	}
+
+	/**
+	 * Records the application of credentials to a repository.
+	 *
+	 * @param owner The owner of the repository, e.g. the path of its project
+	 * @param repoId The id the credentials were looked up by (see
+	 * {@link CredentialsProviderRegistry.Resolution#getRepositoryId}), which differs from the name of the repository
+	 * when matched by url or through a mirror
+	 * @param provider The provider whose credentials were applied, or {@code null} if none had any
+	 * @param fromCache Whether the credentials had been looked up before
+	 */
+	public void recordRepository(
+			String owner,
+			String repoName,
+			String repoId,
+			String scheme,
+			CredentialsProvider provider,
+			boolean fromCache,
+			long lookupNanos) {
+		repositories.add(
+				new RepositoryResolution(
+						owner,
+						repoName,
+						repoId,
+						scheme,
+						provider == null ? null : provider.getClass().getName(),
+						fromCache,
+						lookupNanos
+				)
+		);
+	}
+
+	private ServerTimings serverTimings(String repoId) {
+		return serverTimingsByRepoId.computeIfAbsent( repoId, id -> new ServerTimings() );
+	}
+
+	private static void increment(ConcurrentHashMap<String,LongAdder> counters, String key) {
+		counters.computeIfAbsent( key, k -> new LongAdder() ).increment();
+	}
+
+	/**
+	 * Writes the statistics as JSON.  Repositories are sorted, so that reports of identical builds only differ
+	 * by their durations.
+	 *
+	 * @param owners Selects the owners of the repositories to list.  The settings and the aggregate counters always
+	 * cover the whole build.
+	 */
+	public void writeJson(Writer writer, Predicate<String> owners) throws IOException {
+		final List<RepositoryResolution> selected = new ArrayList<>();
+		for ( RepositoryResolution repository : repositories ) {
+			if ( owners.test( repository.owner ) ) {
+				selected.add( repository );
+			}
+		}
+		selected.sort(
+				Comparator.comparing( (RepositoryResolution repository) -> String.valueOf( repository.owner ) )
+						.thenComparing( repository -> repository.repoName )
+		);
+
+		final JsonWriter json = new JsonWriter( writer );
+		json.beginObject();
+
+		final SettingsRead settings = settingsRead;
+		json.name( "settings" );
+		if ( settings == null ) {
+			json.nullValue();
+		}
+		else {
+			json.beginObject();
+			json.name( "file" ).value( settings.settingsFile );
+			json.name( "servers" ).value( settings.serverCount );
+			json.name( "fromCache" ).value( settings.fromCache );
+			json.name( "parseNanos" ).value( settings.nanos );
+			json.endObject();
+		}
+
+		json.name( "repositories" ).beginArray();
+		for ( RepositoryResolution repository : selected ) {
+			json.beginObject();
+			json.name( "project" ).value( repository.owner );
+			json.name( "name" ).value( repository.repoName );
+			json.name( "repoId" ).value( repository.repoId );
+			json.name( "scheme" ).value( repository.scheme );
+			json.name( "provider" ).value( repository.provider );
+			json.name( "fromCache" ).value( repository.fromCache );
+			json.name( "lookupNanos" ).value( repository.lookupNanos );
+			final ServerTimings timings = repository.repoId == null
+					? null
+					: serverTimingsByRepoId.get( repository.repoId );
+			if ( timings != null ) {
+				json.name( "interpolateNanos" ).value( timings.interpolationNanos );
+				json.name( "decryptNanos" ).value( timings.decryptionNanos );
+				json.name( "decryptFromCache" ).value( timings.decryptionFromCache );
+			}
+			json.endObject();
+		}
+		json.endArray();
+
+		json.name( "lookupsByRepoId" );
+		writeCounters( json, lookupsByRepoId );
+		json.name( "callsByProvider" );
+		writeCounters( json, callsByProvider );
+		json.name( "missesByProvider" );
+		writeCounters( json, missesByProvider );
+
+		json.endObject();
+		writer.write( '\n' );
+		writer.flush();
+	}
+
+	private static void writeCounters(JsonWriter json, Map<String,LongAdder> counters) throws IOException {
+		json.beginObject();
+		for ( Map.Entry<String,LongAdder> entry : new TreeMap<>( counters ).entrySet() ) {
+			json.name( entry.getKey() ).value( entry.getValue().sum() );
+		}
+		json.endObject();
+	}
+
+	private static class SettingsRead {
+		private final String settingsFile;
+		private final long nanos;
+		private final int serverCount;
+		private final boolean fromCache;
+
+		private SettingsRead(String settingsFile, long nanos, int serverCount, boolean fromCache) {
+			this.settingsFile = settingsFile;
+			this.nanos = nanos;
+			this.serverCount = serverCount;
+			this.fromCache = fromCache;
+		}
+	}
+
+	private static class ServerTimings {
+		private volatile long interpolationNanos;
+		private volatile long decryptionNanos;
+		private volatile boolean decryptionFromCache;
+	}
+
+	private static class RepositoryResolution {
+		private final String owner;
+		private final String repoName;
+		private final String repoId;
+		private final String scheme;
+		private final String provider;
+		private final boolean fromCache;
+		private final long lookupNanos;
+
+		private RepositoryResolution(
+				String owner,
+				String repoName,
+				String repoId,
+				String scheme,
+				String provider,
+				boolean fromCache,
+				long lookupNanos) {
+			this.owner = owner;
+			this.repoName = repoName;
+			this.repoId = repoId;
+			this.scheme = scheme;
+			this.provider = provider;
+			this.fromCache = fromCache;
+			this.lookupNanos = lookupNanos;
+		}
+	}
+
+	/**
+	 * Minimal indenting JSON writer.
+	 */
+	private static class JsonWriter {
+		private final Writer writer;
+		private int depth;
+		private boolean first = true;
+		private boolean afterName;
+
+		private JsonWriter(Writer writer) {
+			this.writer = writer;
+		}
+
+		private JsonWriter beginObject() throws IOException {
+			return open( '{' );
+		}
+
+		private JsonWriter endObject() throws IOException {
+			return close( '}' );
+		}
+
+		private JsonWriter beginArray() throws IOException {
+			return open( '[' );
+		}
+
+		private JsonWriter endArray() throws IOException {
+			return close( ']' );
+		}
+
+		private JsonWriter name(String name) throws IOException {
+			separate();
+			string( name );
+			writer.write( ": " );
+			afterName = true;
+			return this;
+		}
+
+		private JsonWriter value(String value) throws IOException {
+			separate();
+			if ( value == null ) {
+				writer.write( "null" );
+			}
+			else {
+				string( value );
+			}
+			return this;
+		}
+
+		private JsonWriter value(long value) throws IOException {
+			separate();
+			writer.write( Long.toString( value ) );
+			return this;
+		}
+
+		private JsonWriter value(boolean value) throws IOException {
+			separate();
+			writer.write( Boolean.toString( value ) );
+			return this;
+		}
+
+		private JsonWriter nullValue() throws IOException {
+			return value( (String) null );
+		}
+
+		private JsonWriter open(char bracket) throws IOException {
+			separate();
+			writer.write( bracket );
+			depth++;
+			first = true;
+			return this;
+		}
+
+		private JsonWriter close(char bracket) throws IOException {
+			depth--;
+			if ( !first ) {
+				newLine();
+			}
+			writer.write( bracket );
+			first = false;
+			return this;
+		}
+
+		private void separate() throws IOException {
+			if ( afterName ) {
+				afterName = false;
+				return;
+			}
+			if ( depth > 0 ) {
+				if ( !first ) {
+					writer.write( ',' );
+				}
+				newLine();
+			}
+			first = false;
+		}
+
+		private void newLine() throws IOException {
+			writer.write( '\n' );
+			for ( int i = 0; i < depth; i++ ) {
+				writer.write( "  " );
+			}
+		}
+
+		private void string(String value) throws IOException {
+			writer.write( '"' );
+			for ( int i = 0; i < value.length(); i++ ) {
+				final char c = value.charAt( i );
+				switch ( c ) {
+					case '"':
+						writer.write( "\\\"" );
+						break;
+					case '\\':
+						writer.write( "\\\\" );
+						break;
+					case '\n':
+						writer.write( "\\n" );
+						break;
+					case '\r':
+						writer.write( "\\r" );
+						break;
+					case '\t':
+						writer.write( "\\t" );
+						break;
+					default:
+						if ( c < 0x20 ) {
+							writer.write( String.format( "\\u%04x", (int) c ) );
+						}
+						else {
+							writer.write( c );
+						}
+				}
+			}
+			writer.write( '"' );
+		}
+	}
+}
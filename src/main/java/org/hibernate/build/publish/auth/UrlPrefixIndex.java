@@ -0,0 +1,140 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of repository ids by URL prefix: a trie keyed by scheme, host and port, then by path segment.
+ * Looking up the longest prefix of a URL costs a single walk over the URL, no matter how many prefixes
+ * are indexed.
+ * <p/>
+ * The scheme is part of the key, so that credentials meant for {@literal https} never leak to plain {@literal http}
+ * (default ports are the same as no port).  The user info, query and fragment are not, and prefixes only match on
+ * whole path segments: {@literal https://repo.example.org/maven} matches
+ * {@literal https://repo.example.org/maven/releases} but neither {@literal https://repo.example.org/maven2} nor
+ * {@literal http://repo.example.org/maven/releases}.
+ * <p/>
+ * Lookups may happen concurrently with additions.
+ */
+public class UrlPrefixIndex {
+	private final ConcurrentHashMap<String,Node> nodesByOrigin = new ConcurrentHashMap<>();
+
+	/**
+	 * Maps URLs starting with the given prefix to the given repository id, replacing any previous mapping of the
+	 * same prefix.
+	 *
+	 * @throws IllegalArgumentException If the prefix is not an absolute URL with a host
+	 */
+	public void add(String urlPrefix, String repositoryId) {
+		final URI uri = URI.create( urlPrefix );
+		final String origin = originKey( uri );
+		if ( origin == null ) {
+			throw new IllegalArgumentException( "URL prefix has no scheme or host : " + urlPrefix );
+		}
+
+		Node node = nodesByOrigin.computeIfAbsent( origin, key -> new Node() );
+		final String path = uri.getRawPath();
+		if ( path != null ) {
+			int start = 0;
+			while ( start < path.length() ) {
+				int end = path.indexOf( '/', start );
+				if ( end < 0 ) {
+					end = path.length();
+				}
+				if ( end > start ) {
+					node = node.children.computeIfAbsent( path.substring( start, end ), key -> new Node() );
+				}
+				start = end + 1;
+			}
+		}
+		node.repositoryId = repositoryId;
+	}
+
+	/**
+	 * @return Whether nothing is indexed
+	 */
+	public boolean isEmpty() {
+		return nodesByOrigin.isEmpty();
+	}
+
+	/**
+	 * Finds the repository id mapped to the longest prefix of the given URL.
+	 *
+	 * @return The repository id, or {@code null} if no prefix matches.
+	 */
+	public String match(URI url) {
+		final String origin = originKey( url );
+		if ( origin == null ) {
+			return null;
+		}
+
+		Node node = nodesByOrigin.get( origin );
+		if ( node == null ) {
+			return null;
+		}
+
+		String match = node.repositoryId;
+		final String path = url.getRawPath();
+		if ( path != null ) {
+			int start = 0;
+			while ( start < path.length() ) {
+				int end = path.indexOf( '/', start );
+				if ( end < 0 ) {
+					end = path.length();
+				}
+				if ( end > start ) {
+					node = node.children.get( path.substring( start, end ) );
+					if ( node == null ) {
+						break;
+					}
+					if ( node.repositoryId != null ) {
+						match = node.repositoryId;
+					}
+				}
+				start = end + 1;
+			}
+		}
+		return match;
+	}
+
+	private static String originKey(URI uri) {
+		final String scheme = uri.getScheme();
+		final String host = uri.getHost();
+		if ( scheme == null || host == null ) {
+			return null;
+		}
+
+		final String normalizedScheme = scheme.toLowerCase( Locale.ROOT );
+		final String normalized = normalizedScheme + "://" + host.toLowerCase( Locale.ROOT );
+		final int port = uri.getPort();
+		if ( port < 0 || isDefaultPort( normalizedScheme, port ) ) {
+			return normalized;
+		}
+		return normalized + ':' + port;
+	}
+
+	private static boolean isDefaultPort(String scheme, int port) {
+		switch ( scheme ) {
+			case "http":
+				return port == 80;
+			case "https":
+				return port == 443;
+			case "sftp":
+				return port == 22;
+			default:
+				return false;
+		}
+	}
+
+	private static class Node {
+		private final ConcurrentHashMap<String,Node> children = new ConcurrentHashMap<>();
+		private volatile String repositoryId;
+	}
+}
@@ -0,0 +1,277 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.dsl.RepositoryHandler;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.publish.PublishingExtension;
+import org.gradle.api.tasks.Upload;
+
+import org.hibernate.build.publish.auth.Credentials;
+import org.hibernate.build.publish.auth.CredentialsProviderRegistry;
+import org.hibernate.build.publish.auth.ResolutionStatistics;
+import org.hibernate.build.publish.util.Helper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Alternative to the per-project handlers, enabled through the {@value #BATCH_PROPERTY} Gradle property.  All the
+ * Maven repositories of all the projects of a build (dependency, publishing and upload repositories) are gathered
+ * and grouped by name (and url, when matching by url) when the projects are evaluated.  The credentials for each
+ * group are then resolved once, in parallel if the {@value #PARALLEL_PROPERTY} Gradle property is set, and applied
+ * to the whole group.
+ * <p/>
+ * The dependency repositories of the projects are redirected to their {@link Mirrors mirror} first, if any, and then
+ * get the credentials of the mirror.
+ * <p/>
+ * All projects share a single {@link CredentialsProviderRegistry}.  Unlike the per-project handlers, credentials
+ * are resolved for every repository, whether it ends up being used or not.  Repositories added after the projects
+ * are evaluated get their credentials right away.
+ */
+public class BatchedRepoHandler {
+	private static final Logger log = LoggerFactory.getLogger( BatchedRepoHandler.class );
+
+	/**
+	 * Name of the Gradle property enabling the batched application of credentials.
+	 */
+	public static final String BATCH_PROPERTY = "mavenRepoAuth.batch";
+
+	/**
+	 * Name of the Gradle property enabling the resolution of the credentials of distinct repositories in parallel.
+	 */
+	public static final String PARALLEL_PROPERTY = "mavenRepoAuth.batchParallel";
+
+	private static final String NAME = "mavenRepoAuthBatch";
+
+	private final CredentialsProviderRegistry credentialsProviderRegistry;
+	private final boolean parallel;
+	private final Supplier<Mirrors> mirrors;
+	private final Provider<MavenRepoAuthService> service;
+
+	private final List<Project> projects = new ArrayList<>();
+	private Map<RepositoryKey,List<OwnedRepository>> pendingReposByKey = new LinkedHashMap<>();
+
+	private BatchedRepoHandler(
+			CredentialsProviderRegistry credentialsProviderRegistry,
+			boolean parallel,
+			Supplier<Mirrors> mirrors,
+			Provider<MavenRepoAuthService> service) {
+		this.credentialsProviderRegistry = credentialsProviderRegistry;
+		this.parallel = parallel;
+		this.mirrors = mirrors;
+		this.service = service;
+	}
+
+	public static boolean isEnabled(Project project) {
+		return isSet( project, BATCH_PROPERTY );
+	}
+
+	private static boolean isSet(Project project, String propertyName) {
+		final Object value = project.findProperty( propertyName );
+		return value != null && Boolean.parseBoolean( value.toString() );
+	}
+
+	/**
+	 * Locates the handler of the build the given project belongs to, creating it on first access.
+	 */
+	public static BatchedRepoHandler locate(Project project, Provider<MavenRepoAuthService> service) {
+		final Gradle gradle = project.getGradle();
+		BatchedRepoHandler handler = gradle.getExtensions().findByType( BatchedRepoHandler.class );
+		if ( handler == null ) {
+			handler = new BatchedRepoHandler(
+					MavenRepoAuthPlugin.locateRegistry( project, service ),
+					isSet( project, PARALLEL_PROPERTY ),
+					MavenRepoAuthPlugin.mirrors( project, service ),
+					service
+			);
+			gradle.getExtensions().add( NAME, handler );
+			gradle.projectsEvaluated( handler::applyCredentials );
+		}
+		return handler;
+	}
+
+	public CredentialsProviderRegistry getCredentialsProviderRegistry() {
+		return credentialsProviderRegistry;
+	}
+
+	public void add(Project project) {
+		projects.add( project );
+	}
+
+	private void applyCredentials(Gradle gradle) {
+		final Mirrors resolvedMirrors = mirrors.get();
+		for ( Project project : projects ) {
+			final String owner = project.getPath();
+			collect( project.getRepositories(), owner, resolvedMirrors );
+
+			final PublishingExtension publishing = project.getExtensions().findByType( PublishingExtension.class );
+			if ( publishing != null ) {
+				collect( publishing.getRepositories(), owner, Mirrors.NONE );
+			}
+
+			project.getTasks().withType( Upload.class ).configureEach(
+					upload -> collect( upload.getRepositories(), owner, Mirrors.NONE )
+			);
+		}
+
+		final Map<RepositoryKey,List<OwnedRepository>> reposByKey = pendingReposByKey;
+		pendingReposByKey = null;
+
+		if ( !reposByKey.isEmpty() ) {
+			// Gradle only tracks the configuration inputs read from its own threads, so read them all before
+			// resolving on other threads
+			service.get().prepareLookups();
+
+			// all of them are needed anyway, so decrypt their passwords in one go; repositories matched by url are
+			// looked up by the id their url maps to first, and by their name otherwise
+			final Set<String> serverIds = new HashSet<>();
+			for ( RepositoryKey key : reposByKey.keySet() ) {
+				if ( key.url != null ) {
+					final String mappedId = credentialsProviderRegistry.locateRepositoryId( key.url );
+					if ( mappedId != null ) {
+						serverIds.add( mappedId );
+					}
+				}
+				serverIds.add( key.name );
+			}
+			service.get().decryptPasswords( serverIds );
+		}
+
+		final Map<RepositoryKey,TimedResolution> resolutionsByKey = resolve( reposByKey.keySet() );
+
+		final ResolutionStatistics statistics = credentialsProviderRegistry.getStatistics();
+		int found = 0;
+		for ( Map.Entry<RepositoryKey,List<OwnedRepository>> entry : reposByKey.entrySet() ) {
+			final TimedResolution resolution = resolutionsByKey.get( entry.getKey() );
+			final Credentials credentials = resolution.resolution.getCredentials();
+			if ( credentials != null ) {
+				found++;
+			}
+
+			boolean first = true;
+			for ( OwnedRepository repository : entry.getValue() ) {
+				statistics.recordRepository(
+						repository.owner,
+						entry.getKey().name,
+						resolution.resolution.getRepositoryId(),
+						repository.repo.getUrl().getScheme(),
+						resolution.resolution.getProvider(),
+						resolution.resolution.isMemoized() || !first,
+						first ? resolution.nanos : 0
+				);
+				first = false;
+				if ( credentials != null ) {
+					Helper.applyCredentials( repository.repo, credentials );
+				}
+			}
+		}
+
+		log.debug( "Resolved credentials for " + found + " of " + reposByKey.size() + " distinct Maven repositories" );
+	}
+
+	private void collect(RepositoryHandler repositories, String owner, Mirrors mirrors) {
+		repositories.withType( MavenArtifactRepository.class ).configureEach( repo -> collect( repo, owner, mirrors ) );
+	}
+
+	private void collect(MavenArtifactRepository mavenRepo, String owner, Mirrors mirrors) {
+		final MirrorDefinition mirror = DependencyRepoHandler.applyMirror( mavenRepo, mirrors );
+		if ( pendingReposByKey == null ) {
+			// added after the batch was applied
+			Helper.applyCredentials( mavenRepo, credentialsProviderRegistry, owner, mirror == null ? null : mirror.getId() );
+		}
+		else if ( Helper.isAuthenticatable( mavenRepo ) ) {
+			// mirrored repositories are looked up by the id of their mirror
+			final RepositoryKey key = mirror != null
+					? new RepositoryKey( mirror.getId(), null )
+					: new RepositoryKey(
+							mavenRepo.getName(),
+							credentialsProviderRegistry.isMatchByUrl() ? mavenRepo.getUrl() : null
+					);
+			pendingReposByKey.computeIfAbsent( key, k -> new ArrayList<>() )
+					.add( new OwnedRepository( mavenRepo, owner ) );
+		}
+	}
+
+	private Map<RepositoryKey,TimedResolution> resolve(Collection<RepositoryKey> keys) {
+		final Map<RepositoryKey,TimedResolution> resolutionsByKey = new ConcurrentHashMap<>();
+		( parallel ? keys.parallelStream() : keys.stream() ).forEach(
+				key -> {
+					final long start = System.nanoTime();
+					final CredentialsProviderRegistry.Resolution resolution =
+							credentialsProviderRegistry.resolve( key.name, key.url );
+					resolutionsByKey.put( key, new TimedResolution( resolution, System.nanoTime() - start ) );
+				}
+		);
+		return resolutionsByKey;
+	}
+
+	/**
+	 * What the credentials of a repository are looked up by: its name, and its url when matching by url.
+	 */
+	private static class RepositoryKey {
+		private final String name;
+		private final URI url;
+
+		private RepositoryKey(String name, URI url) {
+			this.name = name;
+			this.url = url;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if ( this == o ) {
+				return true;
+			}
+			if ( !( o instanceof RepositoryKey ) ) {
+				return false;
+			}
+			final RepositoryKey that = (RepositoryKey) o;
+			return name.equals( that.name ) && Objects.equals( url, that.url );
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * name.hashCode() + Objects.hashCode( url );
+		}
+	}
+
+	private static class OwnedRepository {
+		private final MavenArtifactRepository repo;
+		private final String owner;
+
+		private OwnedRepository(MavenArtifactRepository repo, String owner) {
+			this.repo = repo;
+			this.owner = owner;
+		}
+	}
+
+	private static class TimedResolution {
+		private final CredentialsProviderRegistry.Resolution resolution;
+		private final long nanos;
+
+		private TimedResolution(CredentialsProviderRegistry.Resolution resolution, long nanos) {
+			this.resolution = resolution;
+			this.nanos = nanos;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Access to the system properties, environment variables and files the credentials are derived from.  Within Gradle these are read
+ * through {@link ProviderFactoryConfigurationInputs}, making them inputs of the build configuration.
+ */
+public interface ConfigurationInputs {
+	/**
+	 * Reads system properties, environment variables and files directly.
+	 */
+	ConfigurationInputs SYSTEM = new ConfigurationInputs() {
+		@Override
+		public String getSystemProperty(String name) {
+			return System.getProperty( name );
+		}
+
+		@Override
+		public String getEnvironmentVariable(String name) {
+			return System.getenv( name );
+		}
+
+		@Override
+		public byte[] readFile(File file) throws IOException {
+			return file.isFile() ? Files.readAllBytes( file.toPath() ) : null;
+		}
+	};
+
+	/**
+	 * @return The value of the system property, or {@code null} if not set.
+	 */
+	String getSystemProperty(String name);
+
+	/**
+	 * @return The value of the environment variable, or {@code null} if not set.
+	 */
+	String getEnvironmentVariable(String name);
+
+	/**
+	 * @return The content of the file, or {@code null} if it does not exist.
+	 */
+	byte[] readFile(File file) throws IOException;
+}
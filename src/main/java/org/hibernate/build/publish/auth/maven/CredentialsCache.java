@@ -0,0 +1,338 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Optional on-disk cache of the {@literal <server/>} definitions read from {@literal settings.xml} together with
+ * the passwords already decrypted using the master password from {@literal settings-security.xml}.  A warm cache
+ * allows skipping both the XML parsing and the decryption.
+ * <p/>
+ * Entries are fingerprinted by the path, size, modification time and content hash of both files.  The content
+ * hashes also serve as the encryption key of the entry, so the cache never reveals more than the files it was
+ * derived from, and any change to either file makes the stale entry unreadable.  Property interpolation is not
+ * cached, as its results depend on the environment of each build.
+ */
+public class CredentialsCache {
+	private static final Logger log = LoggerFactory.getLogger( CredentialsCache.class );
+
+	private static final int MAGIC = 0x4D524143;
+	private static final byte VERSION = 2;
+
+	private static final String CIPHER = "AES/GCM/NoPadding";
+	private static final int IV_LENGTH = 12;
+	private static final int TAG_LENGTH = 128;
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	private final File directory;
+
+	public CredentialsCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Computes the key of the cache entry for the given files (e.g. the layered settings files followed by the
+	 * security settings file), whose content was already read.
+	 *
+	 * @param contents The content of each file, {@code null} for the ones which do not exist
+	 *
+	 * @return The key, or {@code null} if the files could not be fingerprinted.
+	 */
+	public Key key(List<File> files, List<byte[]> contents) {
+		try {
+			final MessageDigest contentDigest = MessageDigest.getInstance( "SHA-256" );
+			contentDigest.update( "maven-repo-auth".getBytes( StandardCharsets.UTF_8 ) );
+
+			final ByteArrayOutputStream stampBytes = new ByteArrayOutputStream();
+			final DataOutputStream stamp = new DataOutputStream( stampBytes );
+			final StringBuilder paths = new StringBuilder();
+
+			for ( int i = 0; i < files.size(); i++ ) {
+				final File file = files.get( i );
+				final byte[] content = contents.get( i );
+				stamp.writeUTF( file.getAbsolutePath() );
+				if ( content != null ) {
+					stamp.writeLong( content.length );
+					stamp.writeLong( file.lastModified() );
+					contentDigest.update( content );
+				}
+				else {
+					stamp.writeLong( -1 );
+				}
+
+				if ( i > 0 ) {
+					paths.append( '\0' );
+				}
+				paths.append( file.getAbsolutePath() );
+			}
+			stamp.flush();
+
+			final String name = hex( sha256( paths.toString().getBytes( StandardCharsets.UTF_8 ) ) ).substring( 0, 32 );
+
+			return new Key( new File( directory, name + ".bin" ), stampBytes.toByteArray(), contentDigest.digest() );
+		}
+		catch (IOException | NoSuchAlgorithmException e) {
+			log.debug( "Unable to fingerprint Maven settings files", e );
+			return null;
+		}
+	}
+
+	/**
+	 * Loads the entry for the given key.
+	 *
+	 * @return The cached settings, or {@code null} if there is no (valid) entry.
+	 */
+	public CachedSettings load(Key key) {
+		if ( !key.file.isFile() ) {
+			return null;
+		}
+
+		try {
+			final byte[] bytes = Files.readAllBytes( key.file.toPath() );
+			final int offset = 5;
+			if ( bytes.length < offset + IV_LENGTH + TAG_LENGTH / 8 ) {
+				log.debug( "Discarding truncated cached Maven settings : " + key.file.getAbsolutePath() );
+				return null;
+			}
+			final DataInputStream header = new DataInputStream( new ByteArrayInputStream( bytes ) );
+			if ( header.readInt() != MAGIC || header.readByte() != VERSION ) {
+				return null;
+			}
+
+			final Cipher cipher = Cipher.getInstance( CIPHER );
+			cipher.init(
+					Cipher.DECRYPT_MODE,
+					new SecretKeySpec( key.secret, "AES" ),
+					new GCMParameterSpec( TAG_LENGTH, bytes, offset, IV_LENGTH )
+			);
+			cipher.updateAAD( key.stamp );
+			final byte[] payload = cipher.doFinal( bytes, offset + IV_LENGTH, bytes.length - offset - IV_LENGTH );
+
+			final DataInputStream input = new DataInputStream( new ByteArrayInputStream( payload ) );
+
+			final int serverCount = input.readInt();
+			final List<ServerDefinition> servers = new ArrayList<>( serverCount );
+			for ( int i = 0; i < serverCount; i++ ) {
+				final String id = readString( input );
+				final String userName = readString( input );
+				final String password = readString( input );
+				final String privateKey = readString( input );
+				final String passphrase = readString( input );
+				final int urlCount = input.readInt();
+				final List<String> urls = new ArrayList<>( urlCount );
+				for ( int j = 0; j < urlCount; j++ ) {
+					urls.add( readString( input ) );
+				}
+				servers.add( new ServerDefinition( id, userName, password, privateKey, passphrase, urls ) );
+			}
+
+			final int decryptedCount = input.readInt();
+			final Map<String,String> decryptedPasswords = new HashMap<>();
+			for ( int i = 0; i < decryptedCount; i++ ) {
+				decryptedPasswords.put( readString( input ), readString( input ) );
+			}
+
+			log.debug( "Using cached Maven settings : " + key.file.getAbsolutePath() );
+			return new CachedSettings( servers, decryptedPasswords );
+		}
+		catch (IOException | GeneralSecurityException e) {
+			// the files changed since the entry was written (or the entry is damaged)
+			log.debug( "Discarding stale cached Maven settings : " + key.file.getAbsolutePath() );
+			return null;
+		}
+	}
+
+	/**
+	 * Writes (or replaces) the entry for the given key.  The file is only readable and writable
+	 * by its owner.
+	 */
+	public void store(Key key, CachedSettings settings) {
+		try {
+			final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+			final DataOutputStream payload = new DataOutputStream( payloadBytes );
+
+			payload.writeInt( settings.getServers().size() );
+			for ( ServerDefinition server : settings.getServers() ) {
+				writeString( payload, server.getId() );
+				writeString( payload, server.getUserName() );
+				writeString( payload, server.getPassword() );
+				writeString( payload, server.getPrivateKey() );
+				writeString( payload, server.getPassphrase() );
+				payload.writeInt( server.getUrls().size() );
+				for ( String url : server.getUrls() ) {
+					writeString( payload, url );
+				}
+			}
+
+			payload.writeInt( settings.getDecryptedPasswords().size() );
+			for ( Map.Entry<String,String> entry : settings.getDecryptedPasswords().entrySet() ) {
+				writeString( payload, entry.getKey() );
+				writeString( payload, entry.getValue() );
+			}
+			payload.flush();
+
+			final byte[] iv = new byte[IV_LENGTH];
+			RANDOM.nextBytes( iv );
+
+			final Cipher cipher = Cipher.getInstance( CIPHER );
+			cipher.init( Cipher.ENCRYPT_MODE, new SecretKeySpec( key.secret, "AES" ), new GCMParameterSpec( TAG_LENGTH, iv ) );
+			cipher.updateAAD( key.stamp );
+			final byte[] encrypted = cipher.doFinal( payloadBytes.toByteArray() );
+
+			final ByteArrayOutputStream fileBytes = new ByteArrayOutputStream( 5 + IV_LENGTH + encrypted.length );
+			final DataOutputStream file = new DataOutputStream( fileBytes );
+			file.writeInt( MAGIC );
+			file.writeByte( VERSION );
+			file.write( iv );
+			file.write( encrypted );
+			file.flush();
+
+			final Path directoryPath = createOwnerOnlyDirectory( directory.toPath() );
+			final Path temp = createOwnerOnlyFile( directoryPath );
+			Files.write( temp, fileBytes.toByteArray() );
+			try {
+				Files.move( temp, key.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+			}
+			catch (AtomicMoveNotSupportedException e) {
+				Files.move( temp, key.file.toPath(), StandardCopyOption.REPLACE_EXISTING );
+			}
+		}
+		catch (IOException | GeneralSecurityException e) {
+			log.warn( "Unable to write Maven settings cache : " + key.file.getAbsolutePath(), e );
+		}
+	}
+
+	private static boolean supportsPosix() {
+		return FileSystems.getDefault().supportedFileAttributeViews().contains( "posix" );
+	}
+
+	private static Path createOwnerOnlyDirectory(Path path) throws IOException {
+		if ( supportsPosix() ) {
+			final Set<PosixFilePermission> permissions = PosixFilePermissions.fromString( "rwx------" );
+			if ( !Files.isDirectory( path ) ) {
+				Files.createDirectories( path, PosixFilePermissions.asFileAttribute( permissions ) );
+			}
+			Files.setPosixFilePermissions( path, permissions );
+			return path;
+		}
+		return Files.createDirectories( path );
+	}
+
+	private static Path createOwnerOnlyFile(Path directory) throws IOException {
+		if ( supportsPosix() ) {
+			return Files.createTempFile(
+					directory,
+					"settings",
+					".tmp",
+					PosixFilePermissions.asFileAttribute( PosixFilePermissions.fromString( "rw-------" ) )
+			);
+		}
+		return Files.createTempFile( directory, "settings", ".tmp" );
+	}
+
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		if ( value == null ) {
+			output.writeInt( -1 );
+			return;
+		}
+		final byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+		output.writeInt( bytes.length );
+		output.write( bytes );
+	}
+
+	private static String readString(DataInputStream input) throws IOException {
+		final int length = input.readInt();
+		if ( length < 0 ) {
+			return null;
+		}
+		final byte[] bytes = new byte[length];
+		input.readFully( bytes );
+		return new String( bytes, StandardCharsets.UTF_8 );
+	}
+
+	private static byte[] sha256(byte[] bytes) throws NoSuchAlgorithmException {
+		return MessageDigest.getInstance( "SHA-256" ).digest( bytes );
+	}
+
+	private static String hex(byte[] bytes) {
+		final StringBuilder buffer = new StringBuilder( bytes.length * 2 );
+		for ( byte b : bytes ) {
+			buffer.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+		}
+		return buffer.toString();
+	}
+
+	/**
+	 * Identifies (and unlocks) the cache entry for a particular state of the settings files.
+	 */
+	public static class Key {
+		private final File file;
+		private final byte[] stamp;
+		private final byte[] secret;
+
+		private Key(File file, byte[] stamp, byte[] secret) {
+			this.file = file;
+			this.stamp = stamp;
+			this.secret = secret;
+		}
+	}
+
+	/**
+	 * The content of a cache entry.
+	 */
+	public static class CachedSettings {
+		private final List<ServerDefinition> servers;
+		private final Map<String,String> decryptedPasswords;
+
+		public CachedSettings(List<ServerDefinition> servers, Map<String,String> decryptedPasswords) {
+			this.servers = Collections.unmodifiableList( servers );
+			this.decryptedPasswords = Collections.unmodifiableMap( decryptedPasswords );
+		}
+
+		public List<ServerDefinition> getServers() {
+			return servers;
+		}
+
+		/**
+		 * Decrypted passwords, keyed by their encrypted form.
+		 */
+		public Map<String,String> getDecryptedPasswords() {
+			return decryptedPasswords;
+		}
+	}
+}
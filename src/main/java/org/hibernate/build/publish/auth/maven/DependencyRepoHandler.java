@@ -6,27 +6,150 @@
  */
 package org.hibernate.build.publish.auth.maven;
 
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
 import org.gradle.api.Project;
+import org.gradle.api.artifacts.ArtifactRepositoryContainer;
+import org.gradle.api.artifacts.dsl.RepositoryHandler;
 import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
 
 import org.hibernate.build.publish.auth.CredentialsProviderRegistry;
 import org.hibernate.build.publish.util.Helper;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
- * Applies credentials to
+ * Applies credentials to the project's Maven repositories used to resolve dependencies, as they are configured.
+ * The settings are only read once the first Maven repository shows up, and lookups are memoized by the
+ * {@link CredentialsProviderRegistry}, so nothing needs to be deferred to resolution time.
+ * <p/>
+ * Repositories matched by one of the {@link Mirrors} of the Maven settings are redirected to the url of that
+ * mirror, and get the credentials of the mirror's server.
+ *
  * @author Artur Kotyrba
  * @author Steve Ebersole
  */
 @SuppressWarnings("WeakerAccess")
 public class DependencyRepoHandler {
+	private static final Logger log = LoggerFactory.getLogger( DependencyRepoHandler.class );
+
+	/**
+	 * The id of Maven Central in Maven, which Gradle names {@literal MavenRepo}.
+	 */
+	private static final String MAVEN_CENTRAL_ID = "central";
+
+	/**
+	 * The repositories redirected to a mirror, weakly referenced.
+	 */
+	private static final Map<MavenArtifactRepository,Redirection> REDIRECTIONS =
+			Collections.synchronizedMap( new WeakHashMap<>() );
+
 	public static void apply(Project project, CredentialsProviderRegistry credentialsProviderRegistry) {
-		project.afterEvaluate(
-				p -> p.getRepositories().withType( MavenArtifactRepository.class ).all(
-						repo -> Helper.applyCredentials(
-								repo,
-								credentialsProviderRegistry
-						)
-				)
+		apply( project, credentialsProviderRegistry, () -> Mirrors.NONE );
+	}
+
+	/**
+	 * @param mirrors Supplies the mirrors to redirect the repositories to, when first needed
+	 */
+	public static void apply(
+			Project project,
+			CredentialsProviderRegistry credentialsProviderRegistry,
+			Supplier<Mirrors> mirrors) {
+		apply( project.getRepositories(), credentialsProviderRegistry, project.getPath(), mirrors );
+	}
+
+	/**
+	 * Applies credentials to the given repositories.  Used for the repositories of projects, of their buildscripts
+	 * and the ones defined in the settings.
+	 *
+	 * @param owner Describes who the repositories belong to, for the statistics
+	 */
+	public static void apply(
+			RepositoryHandler repositories,
+			CredentialsProviderRegistry credentialsProviderRegistry,
+			String owner) {
+		apply( repositories, credentialsProviderRegistry, owner, () -> Mirrors.NONE );
+	}
+
+	/**
+	 * Applies mirrors and credentials to the given repositories.
+	 *
+	 * @param owner Describes who the repositories belong to, for the statistics
+	 * @param mirrors Supplies the mirrors to redirect the repositories to, when first needed
+	 */
+	public static void apply(
+			RepositoryHandler repositories,
+			CredentialsProviderRegistry credentialsProviderRegistry,
+			String owner,
+			Supplier<Mirrors> mirrors) {
+		repositories.withType( MavenArtifactRepository.class ).configureEach(
+				repo -> {
+					final MirrorDefinition mirror = applyMirror( repo, mirrors.get() );
+					Helper.applyCredentials(
+							repo,
+							credentialsProviderRegistry,
+							owner,
+							mirror == null ? null : mirror.getId()
+					);
+				}
 		);
 	}
+
+	/**
+	 * Redirects the repository to its mirror, if any.  Repositories already redirected are left alone, as they are
+	 * no longer recognizable by their url (e.g. as Maven Central, or as external repositories).
+	 *
+	 * @return The mirror of the repository, or {@code null} if it is not mirrored.
+	 */
+	static MirrorDefinition applyMirror(MavenArtifactRepository repo, Mirrors mirrors) {
+		final Redirection redirection = REDIRECTIONS.get( repo );
+		if ( redirection != null && redirection.url.equals( repo.getUrl() ) ) {
+			return redirection.mirror;
+		}
+
+		if ( mirrors.isEmpty() ) {
+			return null;
+		}
+
+		final MirrorDefinition mirror = mirrors.select( repositoryId( repo ), repo.getUrl() );
+		if ( mirror == null ) {
+			return null;
+		}
+
+		log.info( "Using mirror " + mirror.getId() + " (" + mirror.getUrl() + ") for Maven repository " + repo.getName() );
+		repo.setUrl( mirror.getUrl() );
+		REDIRECTIONS.put( repo, new Redirection( mirror, repo.getUrl() ) );
+		return mirror;
+	}
+
+	/**
+	 * The id Maven would know the repository by, for matching {@literal <mirrorOf/>}.
+	 */
+	static String repositoryId(MavenArtifactRepository repo) {
+		if ( ArtifactRepositoryContainer.DEFAULT_MAVEN_CENTRAL_REPO_NAME.equals( repo.getName() )
+				&& isMavenCentral( repo.getUrl().toString() ) ) {
+			return MAVEN_CENTRAL_ID;
+		}
+		return repo.getName();
+	}
+
+	private static boolean isMavenCentral(String url) {
+		final String central = RepositoryHandler.MAVEN_CENTRAL_URL;
+		return url.equals( central ) || ( url + '/' ).equals( central );
+	}
+
+	private static class Redirection {
+		private final MirrorDefinition mirror;
+		private final URI url;
+
+		private Redirection(MirrorDefinition mirror, URI url) {
+			this.mirror = mirror;
+			this.url = url;
+		}
+	}
 }
@@ -6,7 +6,10 @@
  */
 package org.hibernate.build.publish.auth.maven;
 
+import java.util.Collection;
+
 import org.gradle.api.Project;
+import org.gradle.api.Task;
 import org.gradle.api.artifacts.repositories.ArtifactRepository;
 import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
 import org.gradle.api.tasks.Upload;
@@ -19,24 +22,44 @@ import org.hibernate.build.publish.util.Helper;
  * Acts as the main authentication coordinator for the upload.  It will delegate to all {@link CredentialsProvider}
  * instances registered with the {@link CredentialsProviderRegistry} looking for any that provide authentication
  * against the maven repository defined for each upload task.
+ * <p/>
+ * Credentials are only resolved once the task graph is known, and only for the upload tasks which are
+ * about to run, so builds not uploading anything never read (or decrypt) them.
+ * Only tasks already realized for execution are looked at, and repositories added by other plugins
+ * at any point during configuration are seen, as nothing happens before the task graph is complete.
  *
  * @author Steve Ebersole
  */
 public class LegacyHandler {
 	public static void apply(Project project, CredentialsProviderRegistry credentialsProviderRegistry) {
-		project.afterEvaluate(
-				p -> p.getTasks().withType( Upload.class )
-						.forEach( upload -> process( upload, credentialsProviderRegistry ) )
+		ScheduledTasks.whenReady(
+				project,
+				scheduledTasks -> applyCredentials( project, scheduledTasks, credentialsProviderRegistry )
 		);
 	}
 
+	/**
+	 * Applies credentials to the repositories of the given project's upload tasks among the scheduled tasks.
+	 */
+	static void applyCredentials(
+			Project project,
+			Collection<Task> scheduledTasks,
+			CredentialsProviderRegistry credentialsProviderRegistry) {
+		for ( Task task : scheduledTasks ) {
+			if ( task instanceof Upload && task.getProject() == project ) {
+				process( (Upload) task, credentialsProviderRegistry );
+			}
+		}
+	}
+
 	private static void process(Upload upload, CredentialsProviderRegistry credentialsProviderRegistry) {
 		for ( ArtifactRepository repository : upload.getRepositories() ) {
 			if ( repository instanceof MavenArtifactRepository ) {
 				final MavenArtifactRepository mavenRepo = (MavenArtifactRepository) repository;
 				Helper.applyCredentials(
 						mavenRepo,
-						credentialsProviderRegistry
+						credentialsProviderRegistry,
+						upload.getProject().getPath()
 				);
 			}
 		}
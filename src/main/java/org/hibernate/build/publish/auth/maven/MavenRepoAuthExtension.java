@@ -23,4 +23,23 @@ public class MavenRepoAuthExtension {
 	public CredentialsProviderRegistry getCredentialsProviderRegistry() {
 		return credentialsProviderRegistry;
 	}
+
+	public boolean isMatchByUrl() {
+		return credentialsProviderRegistry.isMatchByUrl();
+	}
+
+	/**
+	 * Whether to match repositories to the Maven servers by url before falling back to their name.
+	 */
+	public void setMatchByUrl(boolean matchByUrl) {
+		credentialsProviderRegistry.setMatchByUrl( matchByUrl );
+	}
+
+	/**
+	 * Maps the repositories whose url starts with the given prefix to the given Maven server id, when matching
+	 * by url.
+	 */
+	public void mapUrl(String urlPrefix, String serverId) {
+		credentialsProviderRegistry.mapUrl( urlPrefix, serverId );
+	}
 }
@@ -6,8 +6,11 @@
  */
 package org.hibernate.build.publish.auth.maven;
 
+import java.util.function.Supplier;
+
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
 
 import org.hibernate.build.publish.auth.CredentialsProviderRegistry;
 
@@ -18,16 +21,99 @@ import org.hibernate.build.publish.auth.CredentialsProviderRegistry;
 public class MavenRepoAuthPlugin implements Plugin<Project> {
 	@Override
 	public void apply(Project project) {
+		final Provider<MavenRepoAuthService> service = MavenRepoAuthService.register( project );
+		registerReportTask( project, service );
+
+		final Object prefetch = project.findProperty( MavenRepoAuthService.PREFETCH_PROPERTY );
+		if ( prefetch != null && Boolean.parseBoolean( prefetch.toString() ) ) {
+			// overlap reading and decrypting with the evaluation of the projects
+			service.get().prefetch();
+		}
+
+		if ( BatchedRepoHandler.isEnabled( project ) ) {
+			final BatchedRepoHandler batch = BatchedRepoHandler.locate( project, service );
+			project.getExtensions().add(
+					MavenRepoAuthExtension.NAME,
+					new MavenRepoAuthExtension( batch.getCredentialsProviderRegistry() )
+			);
+			batch.add( project );
+			return;
+		}
+
 		final MavenRepoAuthExtension extension = new MavenRepoAuthExtension(
-				new CredentialsProviderRegistry( new SettingsXmlCredentialsProvider() )
+				locateRegistry( project, service )
 		);
 		project.getExtensions().add( MavenRepoAuthExtension.NAME, extension );
-		doApply( project, extension.getCredentialsProviderRegistry() );
+		doApply( project, extension.getCredentialsProviderRegistry(), mirrors( project, service ) );
+	}
+
+	/**
+	 * The registry shared through the {@link MavenRepoAuthSettingsPlugin settings plugin}, if applied, or else a new
+	 * one (see {@link #createRegistry}).
+	 */
+	static CredentialsProviderRegistry locateRegistry(Project project, Provider<MavenRepoAuthService> service) {
+		final MavenRepoAuthExtension settingsExtension =
+				project.getGradle().getExtensions().findByType( MavenRepoAuthExtension.class );
+		return settingsExtension != null ? settingsExtension.getCredentialsProviderRegistry() : createRegistry( service );
+	}
+
+	/**
+	 * Creates a registry asking the Maven settings for credentials, along with the discovered providers shared by
+	 * the whole build (see {@link MavenRepoAuthService#getDiscoveredProviders}).  Until a project changes its
+	 * providers, the registry shares the outcome of its lookups with the other projects of the build (see
+	 * {@link MavenRepoAuthService#getSharedResolutions}).
+	 */
+	static CredentialsProviderRegistry createRegistry(Provider<MavenRepoAuthService> service) {
+		final CredentialsProviderRegistry registry = new CredentialsProviderRegistry(
+				new SharedCredentialsProvider( service ),
+				() -> service.get().getStatistics(),
+				() -> service.get().getInterner()
+		);
+		registry.addDiscoveredProviders( service.get().getDiscoveredProviders() );
+		registry.shareResolutions( service.get().getSharedResolutions() );
+		return registry;
+	}
+
+	/**
+	 * Supplies the mirrors of the Maven settings, if enabled through the
+	 * {@value MavenRepoAuthService#MIRRORS_PROPERTY} Gradle property.
+	 */
+	static Supplier<Mirrors> mirrors(Project project, Provider<MavenRepoAuthService> service) {
+		return mirrors( project.findProperty( MavenRepoAuthService.MIRRORS_PROPERTY ), service );
+	}
+
+	/**
+	 * @param enabled The value of the {@value MavenRepoAuthService#MIRRORS_PROPERTY} Gradle property, if set
+	 */
+	static Supplier<Mirrors> mirrors(Object enabled, Provider<MavenRepoAuthService> service) {
+		if ( enabled == null || !Boolean.parseBoolean( enabled.toString() ) ) {
+			return () -> Mirrors.NONE;
+		}
+		return () -> service.get().getMirrors();
+	}
+
+	private static void registerReportTask(Project project, Provider<MavenRepoAuthService> service) {
+		project.getTasks().register(
+				MavenRepoAuthReportTask.NAME,
+				MavenRepoAuthReportTask.class,
+				task -> {
+					task.usesService( service );
+					task.getService().set( service );
+					task.getProjectPath().set( project.getPath() );
+					task.getReportFile().set(
+							project.getLayout().getBuildDirectory().file( "reports/maven-repo-auth/report.json" )
+					);
+				}
+		);
 	}
 
 	public static void doApply(Project project, CredentialsProviderRegistry registry) {
+		doApply( project, registry, () -> Mirrors.NONE );
+	}
+
+	public static void doApply(Project project, CredentialsProviderRegistry registry, Supplier<Mirrors> mirrors) {
 		LegacyHandler.apply( project, registry );
 		PublishingRepoHandler.apply( project, registry );
-		DependencyRepoHandler.apply( project, registry );
+		DependencyRepoHandler.apply( project, registry, mirrors );
 	}
 }
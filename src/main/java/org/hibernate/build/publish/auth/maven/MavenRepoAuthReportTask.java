@@ -0,0 +1,75 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+
+import org.hibernate.build.publish.auth.ResolutionStatistics;
+
+/**
+ * Writes the {@link ResolutionStatistics} of the build as JSON.  The report lists the repositories of the project
+ * and of its buildscript (plus the settings repositories, for the root project): which provider matched, whether
+ * the outcome was already known, and how long the lookup, interpolation and decryption took.  It also holds the
+ * counters of the whole build.  Secrets are never written.
+ * <p/>
+ * The report covers what was resolved by the time the task runs.  With a configuration cache hit, nothing is
+ * resolved at all and the report is mostly empty.
+ */
+public abstract class MavenRepoAuthReportTask extends DefaultTask {
+	public static final String NAME = "mavenRepoAuthReport";
+
+	public MavenRepoAuthReportTask() {
+		setGroup( "help" );
+		setDescription( "Writes a JSON report of the Maven credentials resolution." );
+		// the statistics differ from one build to the next
+		getOutputs().upToDateWhen( task -> false );
+	}
+
+	@Internal
+	public abstract Property<MavenRepoAuthService> getService();
+
+	@Input
+	public abstract Property<String> getProjectPath();
+
+	@OutputFile
+	public abstract RegularFileProperty getReportFile();
+
+	@TaskAction
+	public void writeReport() throws IOException {
+		final Path reportFile = getReportFile().get().getAsFile().toPath();
+		Files.createDirectories( reportFile.getParent() );
+		try ( Writer writer = Files.newBufferedWriter( reportFile, StandardCharsets.UTF_8 ) ) {
+			getService().get().getStatistics().writeJson( writer, this::isReported );
+		}
+		getLogger().lifecycle( "Maven credentials report written to " + reportFile );
+	}
+
+	/**
+	 * The repositories of the project and of its buildscript are reported, as well as the settings repositories
+	 * for the root project.
+	 */
+	private boolean isReported(String owner) {
+		final String projectPath = getProjectPath().get();
+		if ( owner == null || MavenRepoAuthSettingsPlugin.SETTINGS_OWNER.equals( owner ) ) {
+			return ":".equals( projectPath );
+		}
+		return owner.equals( projectPath )
+				|| owner.equals( projectPath + MavenRepoAuthSettingsPlugin.BUILDSCRIPT_OWNER_SUFFIX );
+	}
+}
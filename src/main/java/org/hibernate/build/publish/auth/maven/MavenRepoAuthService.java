@@ -0,0 +1,306 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import javax.inject.Inject;
+
+import org.gradle.api.Project;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import org.hibernate.build.publish.auth.Credentials;
+import org.hibernate.build.publish.auth.CredentialsInterner;
+import org.hibernate.build.publish.auth.CredentialsProvider;
+import org.hibernate.build.publish.auth.CredentialsProviderRegistry;
+import org.hibernate.build.publish.auth.DiscoveredProviders;
+import org.hibernate.build.publish.auth.ResolutionStatistics;
+import org.hibernate.build.publish.auth.maven.pwd.ValueProcessor;
+import org.hibernate.build.publish.auth.maven.pwd.ValueProcessorScanner;
+import org.hibernate.build.publish.util.BackgroundExecutor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build-scoped holder of the credentials read from Maven's {@literal settings.xml}.  A single instance
+ * is shared by every project applying the plugin (including the projects of included builds) so that
+ * the settings are only read once per build rather than once per project.
+ * <p/>
+ * All system properties, environment variables and files the credentials are derived from are read through
+ * Gradle's {@link ProviderFactory}, so that the configuration cache is invalidated whenever one of them changes.
+ */
+public abstract class MavenRepoAuthService
+		implements BuildService<MavenRepoAuthService.Parameters>, CredentialsProvider, AutoCloseable {
+	private static final Logger log = LoggerFactory.getLogger( MavenRepoAuthService.class );
+
+	/**
+	 * The name under which the service is registered.  Qualified by the defining class loader, as
+	 * builds of a composite may load the plugin through distinct class loaders, in which case
+	 * they cannot share an instance.
+	 */
+	public static final String NAME = "mavenRepoAuth@" + Integer.toHexString(
+			System.identityHashCode( MavenRepoAuthService.class.getClassLoader() )
+	);
+
+	/**
+	 * Name of the Gradle property enabling the on-disk {@link CredentialsCache} (under the Gradle user home).
+	 */
+	public static final String CREDENTIALS_CACHE_PROPERTY = "mavenRepoAuth.cacheCredentials";
+
+	/**
+	 * Name of the Gradle property enabling the {@link Mirrors mirrors} of the Maven settings when set to
+	 * {@code true}.
+	 */
+	public static final String MIRRORS_PROPERTY = "mavenRepoAuth.mirrors";
+
+	/**
+	 * Name of the Gradle property enabling the {@link #prefetch() prefetching} of the settings as soon as the
+	 * plugin is applied.
+	 */
+	public static final String PREFETCH_PROPERTY = "mavenRepoAuth.prefetch";
+
+	private final ResolutionStatistics statistics = new ResolutionStatistics();
+	private final CredentialsInterner interner = new CredentialsInterner();
+	private final DiscoveredProviders discoveredProviders = DiscoveredProviders.discover();
+	private final CredentialsProviderRegistry.SharedResolutions sharedResolutions =
+			new CredentialsProviderRegistry.SharedResolutions();
+	private volatile SettingsXmlCredentialsProvider settingsCredentialsProvider;
+	private CompletableFuture<SettingsXmlCredentialsProvider> prefetchedProvider;
+
+	public interface Parameters extends BuildServiceParameters {
+		/**
+		 * The directory of the on-disk {@link CredentialsCache}; no caching happens if not set.
+		 */
+		DirectoryProperty getCredentialsCacheDirectory();
+
+		/**
+		 * The root directory of the build whose {@literal .mvn/settings.xml} is considered; no project settings
+		 * are considered if not set.
+		 */
+		DirectoryProperty getProjectDirectory();
+	}
+
+	/**
+	 * Registers the service (if not already registered) with the root build of the build the given project
+	 * belongs to.
+	 */
+	public static Provider<MavenRepoAuthService> register(Project project) {
+		final Object cacheCredentials = project.findProperty( CREDENTIALS_CACHE_PROPERTY );
+		return register(
+				project.getGradle(),
+				cacheCredentials != null && Boolean.parseBoolean( cacheCredentials.toString() ),
+				project.getRootDir()
+		);
+	}
+
+	/**
+	 * Registers the service (if not already registered) with the root build of the given build.
+	 *
+	 * @param cacheCredentials Whether to use the on-disk {@link CredentialsCache}, should this registration
+	 * be the first one
+	 * @param projectDirectory The root directory of the build whose project settings are considered, should this
+	 * registration be the first one
+	 */
+	public static Provider<MavenRepoAuthService> register(Gradle gradle, boolean cacheCredentials, File projectDirectory) {
+		Gradle rootBuild = gradle;
+		while ( rootBuild.getParent() != null ) {
+			rootBuild = rootBuild.getParent();
+		}
+
+		return rootBuild.getSharedServices().registerIfAbsent(
+				NAME,
+				MavenRepoAuthService.class,
+				spec -> {
+					spec.getParameters().getProjectDirectory().set( projectDirectory );
+					if ( cacheCredentials ) {
+						spec.getParameters().getCredentialsCacheDirectory().set(
+								new File( gradle.getGradleUserHomeDir(), "caches/maven-repo-auth" )
+						);
+					}
+				}
+		);
+	}
+
+	@Inject
+	protected abstract ProviderFactory getProviders();
+
+	@Inject
+	protected abstract ObjectFactory getObjects();
+
+	/**
+	 * The statistics of the credential resolution in this build, reported by {@link MavenRepoAuthReportTask}.
+	 */
+	public ResolutionStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * The interner shared by all projects of the build, so that they all share the same credentials instances.
+	 */
+	public CredentialsInterner getInterner() {
+		return interner;
+	}
+
+	/**
+	 * The providers of the discovered {@link org.hibernate.build.publish.auth.CredentialsProviderFactory factories},
+	 * shared by all projects of the build so that each one is created at most once per build.
+	 */
+	public DiscoveredProviders getDiscoveredProviders() {
+		return discoveredProviders;
+	}
+
+	/**
+	 * The outcome of the lookups of the registries of all projects of the build, for as long as their providers are
+	 * the ones the plugin set up, so that looking up the same repository id in many projects only asks the providers
+	 * once.
+	 */
+	public CredentialsProviderRegistry.SharedResolutions getSharedResolutions() {
+		return sharedResolutions;
+	}
+
+	@Override
+	public Credentials determineAuthentication(String repoId) {
+		return settingsCredentialsProvider().determineAuthentication( repoId );
+	}
+
+	@Override
+	public String determineRepositoryId(URI url) {
+		return settingsCredentialsProvider().determineRepositoryId( url );
+	}
+
+	/**
+	 * Decrypts the passwords of the given Maven servers in bulk.
+	 *
+	 * @see SettingsXmlCredentialsProvider#decryptPasswords
+	 */
+	public void decryptPasswords(Collection<String> serverIds) {
+		settingsCredentialsProvider().decryptPasswords( serverIds );
+	}
+
+	/**
+	 * Reads the settings, and the system properties and environment variables their placeholders refer to, on the
+	 * calling thread, so that lookups running on other threads afterwards read no configuration inputs.
+	 *
+	 * @see SettingsXmlCredentialsProvider#expandPlaceholders
+	 */
+	public void prepareLookups() {
+		settingsCredentialsProvider().expandPlaceholders();
+	}
+
+	/**
+	 * The mirrors defined by the Maven settings.
+	 */
+	public Mirrors getMirrors() {
+		return settingsCredentialsProvider().getMirrors();
+	}
+
+	/**
+	 * Reads the settings and starts parsing them and decrypting the master password and the server passwords in
+	 * the background, unless already done or underway.  The first lookup then only waits for whatever is left of
+	 * that work.
+	 * <p/>
+	 * The settings files, system properties and environment variables are read right away, on the calling thread,
+	 * so that Gradle tracks them as inputs of the build configuration; the background work reads none.
+	 */
+	public void prefetch() {
+		if ( settingsCredentialsProvider != null ) {
+			return;
+		}
+		synchronized ( this ) {
+			if ( settingsCredentialsProvider == null && prefetchedProvider == null ) {
+				final Supplier<SettingsXmlCredentialsProvider> settings = readSettings();
+				prefetchedProvider = CompletableFuture.supplyAsync(
+						() -> {
+							final SettingsXmlCredentialsProvider provider = settings.get();
+							provider.prepare();
+							return provider;
+						},
+						BackgroundExecutor.INSTANCE
+				);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		SettingsXmlCredentialsProvider provider = settingsCredentialsProvider;
+		if ( provider == null ) {
+			synchronized ( this ) {
+				// a prefetch nobody waited for, which may have decrypted something worth caching; waited for so
+				// that nothing keeps running once the build is over
+				if ( prefetchedProvider != null ) {
+					try {
+						provider = awaitPrefetchedProvider();
+					}
+					catch (RuntimeException e) {
+						log.debug( "Prefetching the Maven settings failed", e );
+					}
+				}
+			}
+		}
+		if ( provider != null ) {
+			provider.storeCache();
+		}
+	}
+
+	private SettingsXmlCredentialsProvider settingsCredentialsProvider() {
+		SettingsXmlCredentialsProvider provider = settingsCredentialsProvider;
+		if ( provider == null ) {
+			synchronized ( this ) {
+				provider = settingsCredentialsProvider;
+				if ( provider == null ) {
+					provider = prefetchedProvider == null
+							? readSettings().get()
+							: awaitPrefetchedProvider();
+					settingsCredentialsProvider = provider;
+				}
+			}
+		}
+		return provider;
+	}
+
+	private SettingsXmlCredentialsProvider awaitPrefetchedProvider() {
+		try {
+			return prefetchedProvider.join();
+		}
+		catch (CompletionException e) {
+			if ( e.getCause() instanceof RuntimeException ) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Reads the settings files, system properties and environment variables on the calling thread.
+	 *
+	 * @return The parsing of the settings read, which reads no configuration inputs and may run on any thread
+	 */
+	private Supplier<SettingsXmlCredentialsProvider> readSettings() {
+		final DirectoryProperty cacheDirectory = getParameters().getCredentialsCacheDirectory();
+		final CredentialsCache cache = cacheDirectory.isPresent()
+				? new CredentialsCache( cacheDirectory.get().getAsFile() )
+				: null;
+		final ValueProcessor valueProcessor = new ValueProcessorScanner( new ProviderFactoryPropertyMap( getProviders() ) );
+		final SettingsContents contents = SettingsContents.read(
+				new ProviderFactoryConfigurationInputs( getProviders(), getObjects() ),
+				getParameters().getProjectDirectory().getAsFile().getOrNull()
+		);
+		return () -> new SettingsXmlCredentialsProvider( cache, valueProcessor, contents, statistics, interner );
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.util.function.Supplier;
+import javax.inject.Inject;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.initialization.Settings;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.util.GradleVersion;
+
+import org.hibernate.build.publish.auth.CredentialsProviderRegistry;
+
+/**
+ * Settings form of the plugin.  Applies credentials to the repositories defined in the settings
+ * ({@code pluginManagement} and, as of Gradle 6.8, {@code dependencyResolutionManagement}) as well as to the
+ * buildscript repositories of all projects, and applies {@link MavenRepoAuthPlugin} to all projects.  When enabled,
+ * the {@link Mirrors} apply to all of these repositories alike.
+ * <p/>
+ * The settings and all projects share a single {@link CredentialsProviderRegistry}, also available to build scripts
+ * as the {@value MavenRepoAuthExtension#NAME} extension of {@code gradle}, and the credentials held by the
+ * {@link MavenRepoAuthService}.
+ */
+@SuppressWarnings("unused")
+public class MavenRepoAuthSettingsPlugin implements Plugin<Settings> {
+	private static final GradleVersion DEPENDENCY_RESOLUTION_MANAGEMENT = GradleVersion.version( "6.8" );
+
+	/**
+	 * Owner of the settings repositories in the {@link org.hibernate.build.publish.auth.ResolutionStatistics}.
+	 */
+	static final String SETTINGS_OWNER = "settings";
+
+	/**
+	 * Suffix of the project path making up the owner of buildscript repositories.
+	 */
+	static final String BUILDSCRIPT_OWNER_SUFFIX = " (buildscript)";
+
+	private final ProviderFactory providers;
+
+	@Inject
+	public MavenRepoAuthSettingsPlugin(ProviderFactory providers) {
+		this.providers = providers;
+	}
+
+	@Override
+	public void apply(Settings settings) {
+		final String cacheCredentials = providers.gradleProperty( MavenRepoAuthService.CREDENTIALS_CACHE_PROPERTY )
+				.forUseAtConfigurationTime()
+				.getOrNull();
+		final Provider<MavenRepoAuthService> service = MavenRepoAuthService.register(
+				settings.getGradle(),
+				Boolean.parseBoolean( cacheCredentials ),
+				settings.getRootDir()
+		);
+		final MavenRepoAuthExtension extension = new MavenRepoAuthExtension(
+				MavenRepoAuthPlugin.createRegistry( service )
+		);
+		settings.getExtensions().add( MavenRepoAuthExtension.NAME, extension );
+
+		final String prefetch = providers.gradleProperty( MavenRepoAuthService.PREFETCH_PROPERTY )
+				.forUseAtConfigurationTime()
+				.getOrNull();
+		if ( Boolean.parseBoolean( prefetch ) ) {
+			// overlap reading and decrypting with the evaluation of the settings and projects
+			service.get().prefetch();
+		}
+		final CredentialsProviderRegistry registry = extension.getCredentialsProviderRegistry();
+		// the projects share the registry of the settings rather than creating one each
+		settings.getGradle().getExtensions().add( MavenRepoAuthExtension.NAME, extension );
+
+		final Supplier<Mirrors> settingsMirrors = MavenRepoAuthPlugin.mirrors(
+				providers.gradleProperty( MavenRepoAuthService.MIRRORS_PROPERTY ).forUseAtConfigurationTime().getOrNull(),
+				service
+		);
+		final boolean dependencyResolutionManagement =
+				GradleVersion.current().compareTo( DEPENDENCY_RESOLUTION_MANAGEMENT ) >= 0;
+
+		// plugin requests are resolved right after the settings, so plugin repositories are always needed
+		settings.getGradle().settingsEvaluated(
+				evaluated -> {
+					// mirrored just like the other resolution repositories, as Maven mirrors plugin repositories too
+					DependencyRepoHandler.apply(
+							evaluated.getPluginManagement().getRepositories(),
+							registry,
+							SETTINGS_OWNER,
+							settingsMirrors
+					);
+					if ( dependencyResolutionManagement ) {
+						// shared by all projects, so hooked once for the whole build
+						DependencyRepoHandler.apply(
+								evaluated.getDependencyResolutionManagement().getRepositories(),
+								registry,
+								SETTINGS_OWNER,
+								settingsMirrors
+						);
+					}
+				}
+		);
+
+		settings.getGradle().allprojects(
+				project -> {
+					// hooked before the build script runs, so that the classpath of its buildscript block is covered
+					DependencyRepoHandler.apply(
+							project.getBuildscript().getRepositories(),
+							registry,
+							project.getPath() + BUILDSCRIPT_OWNER_SUFFIX,
+							MavenRepoAuthPlugin.mirrors( project, service )
+					);
+					project.getPluginManager().apply( MavenRepoAuthPlugin.class );
+				}
+		);
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A {@literal <mirror/>} element from {@literal settings.xml}, with its {@literal <mirrorOf/>} expression compiled
+ * up front.  The expression is a comma separated list of repository ids, {@code *}, {@code external:*},
+ * {@code external:http:*} and {@code !id} exclusions, with the same meaning as in Maven: the first explicit mention
+ * of a repository id (included or excluded) decides, otherwise the wildcards do.
+ * <p/>
+ * A {@link #isBlocked() blocked} mirror, such as the {@literal maven-default-http-blocker} of the global settings
+ * of Maven 3.8.1 and later, stands for repositories Maven refuses to use rather than for a place to redirect them to.
+ */
+public class MirrorDefinition {
+	private static final String WILDCARD = "*";
+	private static final String EXTERNAL_WILDCARD = "external:*";
+	private static final String EXTERNAL_HTTP_WILDCARD = "external:http:*";
+
+	private final String id;
+	private final String url;
+	private final String mirrorOf;
+	private final boolean blocked;
+
+	private final Map<String,Boolean> explicitRepositoryIds = new HashMap<>();
+	private boolean all;
+	private boolean external;
+	private boolean externalHttp;
+
+	public MirrorDefinition(String id, String url, String mirrorOf) {
+		this( id, url, mirrorOf, false );
+	}
+
+	public MirrorDefinition(String id, String url, String mirrorOf, boolean blocked) {
+		this.id = id;
+		this.url = url;
+		this.mirrorOf = mirrorOf;
+		this.blocked = blocked;
+
+		for ( String token : mirrorOf.split( "," ) ) {
+			final String repositoryId = token.trim();
+			if ( repositoryId.isEmpty() ) {
+				continue;
+			}
+
+			if ( repositoryId.length() > 1 && repositoryId.startsWith( "!" ) ) {
+				explicitRepositoryIds.putIfAbsent( repositoryId.substring( 1 ), Boolean.FALSE );
+			}
+			else if ( WILDCARD.equals( repositoryId ) ) {
+				all = true;
+			}
+			else if ( EXTERNAL_WILDCARD.equals( repositoryId ) ) {
+				external = true;
+			}
+			else if ( EXTERNAL_HTTP_WILDCARD.equals( repositoryId ) ) {
+				externalHttp = true;
+			}
+			else {
+				explicitRepositoryIds.putIfAbsent( repositoryId, Boolean.TRUE );
+			}
+		}
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public String getMirrorOf() {
+		return mirrorOf;
+	}
+
+	/**
+	 * Whether the repositories matched by this mirror are blocked ({@literal <blocked>true</blocked>}).
+	 */
+	public boolean isBlocked() {
+		return blocked;
+	}
+
+	/**
+	 * Whether this mirror applies to the repository with the given id and url.
+	 */
+	public boolean matches(String repositoryId, URI repositoryUrl) {
+		if ( mirrorOf.equals( repositoryId ) ) {
+			return true;
+		}
+
+		final Boolean explicit = explicitRepositoryIds.get( repositoryId );
+		if ( explicit != null ) {
+			return explicit;
+		}
+
+		if ( all ) {
+			return true;
+		}
+		if ( external || externalHttp ) {
+			return isExternal( repositoryUrl )
+					&& ( external || "http".equalsIgnoreCase( repositoryUrl.getScheme() ) );
+		}
+		return false;
+	}
+
+	private static boolean isExternal(URI url) {
+		if ( url == null || "file".equalsIgnoreCase( url.getScheme() ) ) {
+			return false;
+		}
+		final String host = url.getHost() == null ? null : url.getHost().toLowerCase( Locale.ROOT );
+		return !"localhost".equals( host ) && !"127.0.0.1".equals( host );
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@literal <mirror/>} elements of the Maven settings, selecting the mirror of a repository the way Maven
+ * does: a mirror whose {@literal <mirrorOf/>} is exactly the id of the repository first, otherwise the first
+ * mirror whose {@literal <mirrorOf/>} expression matches.  Repositories whose mirror is
+ * {@link MirrorDefinition#isBlocked() blocked} are left alone: Gradle has its own rules about insecure repositories,
+ * and redirecting them to the placeholder url of the blocking mirror would only break the build.
+ */
+public final class Mirrors {
+	/**
+	 * No mirrors at all.
+	 */
+	public static final Mirrors NONE = new Mirrors( Collections.emptyList() );
+
+	private final List<MirrorDefinition> mirrors;
+	private final Map<String,MirrorDefinition> mirrorsByExactMirrorOf = new HashMap<>();
+
+	public Mirrors(List<MirrorDefinition> mirrors) {
+		this.mirrors = Collections.unmodifiableList( new ArrayList<>( mirrors ) );
+		for ( MirrorDefinition mirror : mirrors ) {
+			mirrorsByExactMirrorOf.putIfAbsent( mirror.getMirrorOf(), mirror );
+		}
+	}
+
+	/**
+	 * Merges the mirrors read from each source.  As in Maven, the mirrors of the sources with a higher precedence
+	 * come first, and replace the mirrors with the same id from sources with a lower precedence.
+	 *
+	 * @param mirrorsBySource The mirrors of each source, in increasing order of precedence
+	 */
+	public static Mirrors merge(List<List<MirrorDefinition>> mirrorsBySource) {
+		final List<MirrorDefinition> result = new ArrayList<>();
+		final Set<String> ids = new HashSet<>();
+		for ( int i = mirrorsBySource.size() - 1; i >= 0; i-- ) {
+			for ( MirrorDefinition mirror : mirrorsBySource.get( i ) ) {
+				if ( ids.add( mirror.getId() ) ) {
+					result.add( mirror );
+				}
+			}
+		}
+		return result.isEmpty() ? NONE : new Mirrors( result );
+	}
+
+	public boolean isEmpty() {
+		return mirrors.isEmpty();
+	}
+
+	public List<MirrorDefinition> getMirrors() {
+		return mirrors;
+	}
+
+	/**
+	 * Selects the mirror of the repository with the given id and url.
+	 *
+	 * @return The mirror, or {@code null} if the repository is not mirrored or its mirror is blocked.
+	 */
+	public MirrorDefinition select(String repositoryId, URI repositoryUrl) {
+		if ( mirrors.isEmpty() ) {
+			return null;
+		}
+
+		final MirrorDefinition mirror = selectDeclared( repositoryId, repositoryUrl );
+		return mirror == null || mirror.isBlocked() ? null : mirror;
+	}
+
+	private MirrorDefinition selectDeclared(String repositoryId, URI repositoryUrl) {
+		final MirrorDefinition exact = mirrorsByExactMirrorOf.get( repositoryId );
+		if ( exact != null ) {
+			return exact;
+		}
+
+		for ( MirrorDefinition mirror : mirrors ) {
+			if ( mirror.matches( repositoryId, repositoryUrl ) ) {
+				return mirror;
+			}
+		}
+		return null;
+	}
+}
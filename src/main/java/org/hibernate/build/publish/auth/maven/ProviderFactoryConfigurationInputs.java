@@ -0,0 +1,45 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.io.File;
+
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.ProviderFactory;
+
+/**
+ * {@link ConfigurationInputs} reading through Gradle's {@link ProviderFactory}.  The system properties, environment
+ * variables and files read become inputs of the configuration cache, so changing any of them (e.g. editing
+ * {@literal settings.xml}) invalidates the cached configuration.
+ */
+public class ProviderFactoryConfigurationInputs implements ConfigurationInputs {
+	private final ProviderFactory providers;
+	private final ObjectFactory objects;
+
+	public ProviderFactoryConfigurationInputs(ProviderFactory providers, ObjectFactory objects) {
+		this.providers = providers;
+		this.objects = objects;
+	}
+
+	@Override
+	public String getSystemProperty(String name) {
+		return providers.systemProperty( name ).forUseAtConfigurationTime().getOrNull();
+	}
+
+	@Override
+	public String getEnvironmentVariable(String name) {
+		return providers.environmentVariable( name ).forUseAtConfigurationTime().getOrNull();
+	}
+
+	@Override
+	public byte[] readFile(File file) {
+		return providers.fileContents( objects.fileProperty().fileValue( file ) )
+				.getAsBytes()
+				.forUseAtConfigurationTime()
+				.getOrNull();
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
+
+import org.hibernate.build.publish.auth.maven.pwd.PropertyMap;
+
+/**
+ * {@link PropertyMap} reading environment variables and system properties through Gradle's {@link ProviderFactory},
+ * so that Gradle knows exactly which of them the build configuration depends on.  Each key is only read once.
+ */
+public class ProviderFactoryPropertyMap implements PropertyMap {
+	private static final String ENV_PREFIX = "env.";
+
+	private final ProviderFactory providers;
+	private final ConcurrentHashMap<String,Optional<String>> values = new ConcurrentHashMap<>();
+
+	public ProviderFactoryPropertyMap(ProviderFactory providers) {
+		this.providers = providers;
+	}
+
+	@Override
+	public Optional<String> get(String key) {
+		return values.computeIfAbsent( key, this::read );
+	}
+
+	private Optional<String> read(String key) {
+		final Provider<String> provider = key.startsWith( ENV_PREFIX )
+				? providers.environmentVariable( key.substring( ENV_PREFIX.length() ) )
+				: providers.systemProperty( key );
+		return Optional.ofNullable( provider.forUseAtConfigurationTime().getOrNull() );
+	}
+}
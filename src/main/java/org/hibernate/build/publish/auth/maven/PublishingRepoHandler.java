@@ -6,34 +6,49 @@
  */
 package org.hibernate.build.publish.auth.maven;
 
+import java.util.Collection;
+
 import org.gradle.api.Project;
+import org.gradle.api.Task;
 import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
-import org.gradle.api.publish.PublishingExtension;
+import org.gradle.api.publish.maven.tasks.PublishToMavenRepository;
 
 import org.hibernate.build.publish.auth.CredentialsProviderRegistry;
 import org.hibernate.build.publish.util.Helper;
 
 /**
  * Acts as the main authentication coordinator for "publish" tasks using the Publication API.
+ * <p/>
+ * Credentials are only resolved once the task graph is known, and only for the repositories of the
+ * publish tasks which are about to run, so builds not publishing anything never read (or decrypt) them.
+ * Only tasks already realized for execution are looked at, and repositories added by other plugins
+ * at any point during configuration are seen, as nothing happens before the task graph is complete.
  *
  * @author Steve Ebersole
  */
 @SuppressWarnings("WeakerAccess")
 public class PublishingRepoHandler {
 	public static void apply(Project project, CredentialsProviderRegistry credentialsProviderRegistry) {
-		project.afterEvaluate(
-				p -> p.getExtensions().getByType( PublishingExtension.class ).getRepositories().forEach(
-						repo -> {
-							if ( repo instanceof MavenArtifactRepository ) {
-								final MavenArtifactRepository mavenRepo = (MavenArtifactRepository) repo;
-
-								Helper.applyCredentials(
-										mavenRepo,
-										credentialsProviderRegistry
-								);
-							}
-						}
-				)
+		ScheduledTasks.whenReady(
+				project,
+				scheduledTasks -> applyCredentials( project, scheduledTasks, credentialsProviderRegistry )
 		);
 	}
+
+	/**
+	 * Applies credentials to the repositories of the given project's publish tasks among the scheduled tasks.
+	 */
+	static void applyCredentials(
+			Project project,
+			Collection<Task> scheduledTasks,
+			CredentialsProviderRegistry credentialsProviderRegistry) {
+		for ( Task task : scheduledTasks ) {
+			if ( task instanceof PublishToMavenRepository && task.getProject() == project ) {
+				final MavenArtifactRepository repository = ( (PublishToMavenRepository) task ).getRepository();
+				if ( repository != null ) {
+					Helper.applyCredentials( repository, credentialsProviderRegistry, project.getPath() );
+				}
+			}
+		}
+	}
 }
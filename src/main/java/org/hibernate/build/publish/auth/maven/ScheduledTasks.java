@@ -0,0 +1,67 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionGraph;
+import org.gradle.api.invocation.Gradle;
+
+/**
+ * Hands the tasks about to run to the handlers of their project, from a single task graph callback for the whole
+ * build, so that the task graph is only walked once however many projects apply the plugin.
+ */
+class ScheduledTasks {
+	private static final String NAME = "mavenRepoAuthScheduledTasks";
+
+	private final Map<Project,List<Consumer<Collection<Task>>>> listenersByProject = new HashMap<>();
+
+	private ScheduledTasks() {
+	}
+
+	/**
+	 * Registers a listener called with the tasks of the given project about to run, once the task graph is known.
+	 * It is not called if none of the project's tasks are about to run.
+	 */
+	static void whenReady(Project project, Consumer<Collection<Task>> listener) {
+		locate( project.getGradle() ).listenersByProject
+				.computeIfAbsent( project, p -> new ArrayList<>() )
+				.add( listener );
+	}
+
+	private static ScheduledTasks locate(Gradle gradle) {
+		ScheduledTasks scheduledTasks = gradle.getExtensions().findByType( ScheduledTasks.class );
+		if ( scheduledTasks == null ) {
+			scheduledTasks = new ScheduledTasks();
+			gradle.getExtensions().add( NAME, scheduledTasks );
+			gradle.getTaskGraph().whenReady( scheduledTasks::notifyListeners );
+		}
+		return scheduledTasks;
+	}
+
+	private void notifyListeners(TaskExecutionGraph graph) {
+		final Map<Project,List<Task>> tasksByProject = new HashMap<>();
+		for ( Task task : graph.getAllTasks() ) {
+			if ( listenersByProject.containsKey( task.getProject() ) ) {
+				tasksByProject.computeIfAbsent( task.getProject(), p -> new ArrayList<>() ).add( task );
+			}
+		}
+
+		for ( Map.Entry<Project,List<Task>> entry : tasksByProject.entrySet() ) {
+			for ( Consumer<Collection<Task>> listener : listenersByProject.get( entry.getKey() ) ) {
+				listener.accept( entry.getValue() );
+			}
+		}
+	}
+}
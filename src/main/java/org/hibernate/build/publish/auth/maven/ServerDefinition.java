@@ -0,0 +1,73 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The raw values of a {@literal <server/>} element from {@literal settings.xml}, before any
+ * property interpolation or password decryption.
+ */
+public class ServerDefinition {
+	private final String id;
+	private final String userName;
+	private final String password;
+	private final String privateKey;
+	private final String passphrase;
+	private final List<String> urls;
+
+	public ServerDefinition(String id, String userName, String password, String privateKey, String passphrase) {
+		this( id, userName, password, privateKey, passphrase, Collections.emptyList() );
+	}
+
+	/**
+	 * @param urls The url prefixes of the repositories the server applies to, from the {@literal <url/>} elements
+	 * of its {@literal <configuration/>}
+	 */
+	public ServerDefinition(
+			String id,
+			String userName,
+			String password,
+			String privateKey,
+			String passphrase,
+			List<String> urls) {
+		this.id = id;
+		this.userName = userName;
+		this.password = password;
+		this.privateKey = privateKey;
+		this.passphrase = passphrase;
+		this.urls = urls.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList( urls );
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getUserName() {
+		return userName;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public String getPrivateKey() {
+		return privateKey;
+	}
+
+	public String getPassphrase() {
+		return passphrase;
+	}
+
+	/**
+	 * The url prefixes of the repositories the server applies to when matching credentials by url; usually empty.
+	 */
+	public List<String> getUrls() {
+		return urls;
+	}
+}
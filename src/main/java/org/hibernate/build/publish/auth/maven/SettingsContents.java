@@ -0,0 +1,101 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.build.publish.auth.maven.pwd.PasswordProcessor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The raw content of the Maven settings files and of {@literal settings-security.xml}, read through the
+ * {@link ConfigurationInputs}.  Reading happens on the calling thread, as Gradle only tracks the inputs read from its
+ * own threads; parsing the contents may then happen anywhere.
+ */
+public final class SettingsContents {
+	private static final Logger log = LoggerFactory.getLogger( SettingsContents.class );
+
+	private final SettingsSources sources;
+	private final List<byte[]> settingsContents;
+	private final File securitySettingsFile;
+	private final byte[] securitySettingsContent;
+
+	private SettingsContents(
+			SettingsSources sources,
+			List<byte[]> settingsContents,
+			File securitySettingsFile,
+			byte[] securitySettingsContent) {
+		this.sources = sources;
+		this.settingsContents = Collections.unmodifiableList( settingsContents );
+		this.securitySettingsFile = securitySettingsFile;
+		this.securitySettingsContent = securitySettingsContent;
+	}
+
+	/**
+	 * Reads all the settings files, and the security settings along with them (even if the master password turns
+	 * out to be already known or not needed at all) so that they are always tracked along with the settings.
+	 *
+	 * @param inputs The source of the system properties, environment variables and files
+	 * @param projectDirectory The root directory of the build, for the project settings; may be {@code null}
+	 */
+	public static SettingsContents read(ConfigurationInputs inputs, File projectDirectory) {
+		final SettingsSources sources = SettingsSources.locate( inputs, projectDirectory );
+		final File securitySettingsFile = PasswordProcessor.determineSecuritySettingsFileLocation(
+				inputs.getSystemProperty( PasswordProcessor.SECURITY_SETTINGS_LOCATION_OVERRIDE )
+		);
+
+		final List<byte[]> settingsContents = new ArrayList<>( sources.getFiles().size() );
+		for ( File file : sources.getFiles() ) {
+			settingsContents.add( readFile( inputs, file ) );
+		}
+		return new SettingsContents(
+				sources,
+				settingsContents,
+				securitySettingsFile,
+				readFile( inputs, securitySettingsFile )
+		);
+	}
+
+	private static byte[] readFile(ConfigurationInputs inputs, File file) {
+		try {
+			return inputs.readFile( file );
+		}
+		catch (IOException e) {
+			log.info( "Unable to read " + file.getAbsolutePath(), e );
+			return null;
+		}
+	}
+
+	public SettingsSources getSources() {
+		return sources;
+	}
+
+	/**
+	 * The contents of the {@link SettingsSources#getFiles() settings files}, in the same order; {@code null} for
+	 * those which do not exist.
+	 */
+	public List<byte[]> getSettingsContents() {
+		return settingsContents;
+	}
+
+	public File getSecuritySettingsFile() {
+		return securitySettingsFile;
+	}
+
+	/**
+	 * @return The content of the security settings, or {@code null} if they do not exist.
+	 */
+	public byte[] getSecuritySettingsContent() {
+		return securitySettingsContent;
+	}
+}
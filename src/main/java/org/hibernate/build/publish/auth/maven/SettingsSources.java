@@ -0,0 +1,179 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import org.hibernate.build.publish.util.BackgroundExecutor;
+import org.hibernate.build.publish.util.PathHelper;
+
+/**
+ * The layered sources of Maven settings, mirroring Maven's own lookup: the project settings in
+ * {@literal .mvn/settings.xml}, the global settings of the Maven installation and the user settings.  The sources are
+ * read on the calling thread, through the {@link ConfigurationInputs}, and then parsed concurrently (on the
+ * {@link BackgroundExecutor}).
+ * <p/>
+ * Sources are kept in increasing order of precedence; a {@literal <server/>} defined by several sources is
+ * taken as a whole from the one with the highest precedence, just as Maven does.  As in Maven 4, which introduced
+ * them, the project settings have the lowest precedence: the installation and the user may override what a
+ * project checks in.
+ */
+public final class SettingsSources {
+	/**
+	 * Name of the system property overriding the location of the user settings.
+	 */
+	public static final String SETTINGS_LOCATION_OVERRIDE = "maven.settings";
+
+	/**
+	 * Name of the system property overriding the location of the global settings.
+	 */
+	public static final String GLOBAL_SETTINGS_LOCATION_OVERRIDE = "maven.global.settings";
+
+	/**
+	 * Name of the system property holding the Maven installation directory, whose {@literal conf/settings.xml}
+	 * is the global settings.  The {@literal M2_HOME} and {@literal MAVEN_HOME} environment variables are used
+	 * when not set.
+	 */
+	public static final String MAVEN_HOME = "maven.home";
+
+	private static final String SETTINGS_DEFAULT_LOCATION = "~/.m2/settings.xml";
+	private static final String PROJECT_SETTINGS_LOCATION = ".mvn/settings.xml";
+	private static final String GLOBAL_SETTINGS_LOCATION = "conf/settings.xml";
+
+	private final List<File> files;
+
+	private SettingsSources(List<File> files) {
+		this.files = Collections.unmodifiableList( files );
+	}
+
+	/**
+	 * Determines the settings files to consider.
+	 *
+	 * @param inputs The source of the system properties and environment variables locating the files
+	 * @param projectDirectory The root directory of the build, for the project settings; may be {@code null}
+	 */
+	public static SettingsSources locate(ConfigurationInputs inputs, File projectDirectory) {
+		final List<File> files = new ArrayList<>( 3 );
+
+		if ( projectDirectory != null ) {
+			files.add( new File( projectDirectory, PROJECT_SETTINGS_LOCATION ) );
+		}
+
+		final File globalSettingsFile = determineGlobalSettingsFileLocation( inputs );
+		if ( globalSettingsFile != null ) {
+			files.add( globalSettingsFile );
+		}
+
+		final String location = inputs.getSystemProperty( SETTINGS_LOCATION_OVERRIDE );
+		files.add( new File( PathHelper.normalizePath( location == null ? SETTINGS_DEFAULT_LOCATION : location ) ) );
+
+		return new SettingsSources( files );
+	}
+
+	private static File determineGlobalSettingsFileLocation(ConfigurationInputs inputs) {
+		final String location = inputs.getSystemProperty( GLOBAL_SETTINGS_LOCATION_OVERRIDE );
+		if ( location != null ) {
+			return new File( PathHelper.normalizePath( location ) );
+		}
+
+		String mavenHome = inputs.getSystemProperty( MAVEN_HOME );
+		if ( mavenHome == null ) {
+			mavenHome = inputs.getEnvironmentVariable( "M2_HOME" );
+		}
+		if ( mavenHome == null ) {
+			mavenHome = inputs.getEnvironmentVariable( "MAVEN_HOME" );
+		}
+		return mavenHome == null
+				? null
+				: new File( PathHelper.normalizePath( mavenHome ), GLOBAL_SETTINGS_LOCATION );
+	}
+
+	/**
+	 * The settings files, in increasing order of precedence.  They may not exist.
+	 */
+	public List<File> getFiles() {
+		return files;
+	}
+
+	/**
+	 * The user settings file, which has the highest precedence.
+	 */
+	public File getUserSettingsFile() {
+		return files.get( files.size() - 1 );
+	}
+
+	/**
+	 * Applies the given function to each of the items concurrently, one of them on the calling thread.  The function
+	 * must not read any {@link ConfigurationInputs}.
+	 *
+	 * @return The results, in the order of the items
+	 */
+	public static <S,T> List<T> mapConcurrently(List<S> items, Function<S,T> function) {
+		if ( items.isEmpty() ) {
+			return Collections.emptyList();
+		}
+
+		final List<CompletableFuture<T>> futures = new ArrayList<>( items.size() );
+		for ( int i = 1; i < items.size(); i++ ) {
+			final S item = items.get( i );
+			futures.add( CompletableFuture.supplyAsync( () -> function.apply( item ), BackgroundExecutor.INSTANCE ) );
+		}
+
+		final List<T> results = new ArrayList<>( items.size() );
+		results.add( function.apply( items.get( 0 ) ) );
+		try {
+			for ( CompletableFuture<T> future : futures ) {
+				results.add( future.join() );
+			}
+		}
+		catch (CompletionException e) {
+			if ( e.getCause() instanceof RuntimeException ) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+		return results;
+	}
+
+	/**
+	 * Merges the server definitions read from each source, the definitions of sources with a higher precedence
+	 * replacing those with the same id from sources with a lower precedence.
+	 *
+	 * @param serversBySource The servers of each source, in increasing order of precedence
+	 *
+	 * @return The immutable servers by id
+	 */
+	public static Map<String,ServerDefinition> merge(List<List<ServerDefinition>> serversBySource) {
+		final Map<String,ServerDefinition> result = new HashMap<>();
+		for ( List<ServerDefinition> servers : serversBySource ) {
+			for ( ServerDefinition server : servers ) {
+				result.put( server.getId(), server );
+			}
+		}
+		return result.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap( result );
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder buffer = new StringBuilder();
+		for ( File file : files ) {
+			if ( buffer.length() > 0 ) {
+				buffer.append( File.pathSeparatorChar );
+			}
+			buffer.append( file.getAbsolutePath() );
+		}
+		return buffer.toString();
+	}
+}
@@ -7,147 +7,464 @@
 package org.hibernate.build.publish.auth.maven;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.xml.stream.XMLStreamException;
 
 import org.hibernate.build.publish.auth.Credentials;
+import org.hibernate.build.publish.auth.CredentialsInterner;
 import org.hibernate.build.publish.auth.CredentialsProvider;
+import org.hibernate.build.publish.auth.ResolutionStatistics;
+import org.hibernate.build.publish.auth.UrlPrefixIndex;
+import org.hibernate.build.publish.auth.maven.pwd.DecryptionPasswordStrategy;
 import org.hibernate.build.publish.auth.maven.pwd.PasswordProcessor;
+import org.hibernate.build.publish.auth.maven.pwd.PasswordStrategy;
 import org.hibernate.build.publish.auth.maven.pwd.ValueProcessor;
-import org.hibernate.build.publish.auth.maven.pwd.ValueProcessorRegex;
-import org.hibernate.build.publish.util.DomHelper;
-import org.hibernate.build.publish.util.PathHelper;
+import org.hibernate.build.publish.auth.maven.pwd.ValueProcessorScanner;
+import org.hibernate.build.publish.jfr.CredentialsEvents;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import org.dom4j.Document;
-import org.dom4j.DocumentException;
-import org.dom4j.DocumentFactory;
-import org.dom4j.Element;
-import org.dom4j.io.SAXReader;
-import org.xml.sax.InputSource;
-
 /**
- * Provider of credentials based on standard Maven conventions using {@literal settings.xml}.
+ * Provider of credentials based on standard Maven conventions using {@literal settings.xml}.  The global, project and
+ * user settings are merged as described by {@link SettingsSources}.
  *
  * @author Steve Ebersole
  */
 public class SettingsXmlCredentialsProvider implements CredentialsProvider {
 	private static final Logger log = LoggerFactory.getLogger( SettingsXmlCredentialsProvider.class );
 
-	public static final String SETTINGS_LOCATION_OVERRIDE = "maven.settings";
-	private static final String SETTINGS_DEFAULT_LOCATION = "~/.m2/settings.xml";
+	public static final String SETTINGS_LOCATION_OVERRIDE = SettingsSources.SETTINGS_LOCATION_OVERRIDE;
+
+	private final Map<String,ServerDefinition> serversByRepoIdMap;
+	private final ConcurrentHashMap<String,Optional<Credentials>> credentialsByRepoIdMap = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String,String> decryptedPasswords = new ConcurrentHashMap<>();
+
+	private final CredentialsCache cache;
+	private final CredentialsCache.Key cacheKey;
+	private final AtomicBoolean cacheOutdated = new AtomicBoolean();
 
-	private final Map<String,Credentials> credentialsByRepoIdMap;
+	private final SettingsSources sources;
+	private final File securitySettingsFile;
+	private final byte[] securitySettingsContent;
+	private final ResolutionStatistics statistics;
+	private final CredentialsInterner interner;
+	private boolean settingsFromCache;
+	private volatile UrlPrefixIndex urlIndex;
 
-	public final ValueProcessor valueProcessor = ValueProcessorRegex.INSTANCE;
+	private final List<byte[]> settingsContents;
+	private volatile Mirrors mirrors;
 
+	public final ValueProcessor valueProcessor;
+
+	/**
+	 * Reads the settings from the system properties and files of the JVM, without caching.
+	 */
 	public SettingsXmlCredentialsProvider() {
-		final File settingsFile = determineSettingsFileLocation();
-		this.credentialsByRepoIdMap = extractCredentialsFromSettings( settingsFile );
+		this(
+				null,
+				ValueProcessorScanner.INSTANCE,
+				SettingsContents.read( ConfigurationInputs.SYSTEM, null ),
+				new ResolutionStatistics(),
+				new CredentialsInterner()
+		);
+	}
+
+	/**
+	 * Parses settings read already, which needs no {@link ConfigurationInputs} and may therefore happen on any
+	 * thread.
+	 *
+	 * @param cache Optional cache of the parsed settings and decrypted passwords; may be {@code null}
+	 * @param valueProcessor The processor for property placeholders in the settings values
+	 * @param contents The settings files and security settings, read through the configuration inputs
+	 * @param statistics The collector of timings
+	 * @param interner The interner sharing equal credentials
+	 */
+	public SettingsXmlCredentialsProvider(
+			CredentialsCache cache,
+			ValueProcessor valueProcessor,
+			SettingsContents contents,
+			ResolutionStatistics statistics,
+			CredentialsInterner interner) {
+		this.valueProcessor = valueProcessor;
+		this.statistics = statistics;
+		this.interner = interner;
+		this.sources = contents.getSources();
+		this.securitySettingsFile = contents.getSecuritySettingsFile();
+		this.securitySettingsContent = contents.getSecuritySettingsContent();
+		this.settingsContents = contents.getSettingsContents();
+
+		this.cache = cache;
+
+		final long start = System.nanoTime();
+		try ( CredentialsEvents.SettingsRead event = CredentialsEvents.settingsRead( sources.getUserSettingsFile() ) ) {
+			this.cacheKey = cache == null || !exists( settingsContents )
+					? null
+					: cache.key(
+							withSecuritySettings( sources.getFiles(), securitySettingsFile ),
+							withSecuritySettings( settingsContents, securitySettingsContent )
+					);
+			this.serversByRepoIdMap = extractServersFromSettings( settingsContents );
+			event.setServerCount( serversByRepoIdMap.size() );
+			event.setCached( settingsFromCache );
+		}
+		statistics.recordSettingsRead(
+				sources.toString(),
+				System.nanoTime() - start,
+				serversByRepoIdMap.size(),
+				settingsFromCache
+		);
+	}
+
+	private static boolean exists(List<byte[]> contents) {
+		for ( byte[] content : contents ) {
+			if ( content != null ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<Integer> existing(List<byte[]> contents) {
+		final List<Integer> existing = new ArrayList<>();
+		for ( int i = 0; i < contents.size(); i++ ) {
+			if ( contents.get( i ) != null ) {
+				existing.add( i );
+			}
+		}
+		return existing;
 	}
 
-	private File determineSettingsFileLocation() {
-		final String location = System.getProperty( SETTINGS_LOCATION_OVERRIDE, SETTINGS_DEFAULT_LOCATION );
-		return new File( PathHelper.normalizePath( location ) );
+	private static <T> List<T> withSecuritySettings(List<T> settings, T securitySettings) {
+		final List<T> result = new ArrayList<>( settings );
+		result.add( securitySettings );
+		return result;
 	}
 
-	private Map<String,Credentials> extractCredentialsFromSettings(File settingsFile) {
-		if ( ! settingsFile.exists() ) {
-			log.warn( "Maven settings.xml file did not exist : " + settingsFile.getAbsolutePath() );
+	/**
+	 * Reads the raw {@literal <server/>} definitions of all sources, merged.  Interpolation and decryption of their
+	 * values is deferred until credentials for a particular server are first requested.
+	 */
+	private Map<String,ServerDefinition> extractServersFromSettings(List<byte[]> settingsContents) {
+		if ( !exists( settingsContents ) ) {
+			log.warn( "Maven settings.xml file did not exist : " + sources.getUserSettingsFile().getAbsolutePath() );
 			// EARLY EXIT
 			return Collections.emptyMap();
 		}
 
+		final CredentialsCache.CachedSettings cachedSettings = cacheKey == null ? null : cache.load( cacheKey );
+
+		final Map<String,ServerDefinition> servers;
+		if ( cachedSettings != null ) {
+			settingsFromCache = true;
+			servers = SettingsSources.merge( Collections.singletonList( cachedSettings.getServers() ) );
+			decryptedPasswords.putAll( cachedSettings.getDecryptedPasswords() );
+		}
+		else {
+			servers = SettingsSources.merge(
+					SettingsSources.mapConcurrently(
+							existing( settingsContents ),
+							i -> readServerDefinitions( sources.getFiles().get( i ), settingsContents.get( i ) )
+					)
+			);
+			if ( cacheKey != null ) {
+				cache.store(
+						cacheKey,
+						new CredentialsCache.CachedSettings( new ArrayList<>( servers.values() ), Collections.emptyMap() )
+				);
+			}
+		}
+
+		if ( servers.isEmpty() ) {
+			log.warn( "Maven settings.xml files did not contain <sever/> elements : " + sources );
+		}
+		return servers;
+	}
+
+	/**
+	 * Writes the passwords decrypted since the settings were read to the {@link CredentialsCache}, if any.
+	 */
+	public void storeCache() {
+		if ( cacheKey != null && cacheOutdated.compareAndSet( true, false ) ) {
+			cache.store(
+					cacheKey,
+					new CredentialsCache.CachedSettings(
+							new ArrayList<>( serversByRepoIdMap.values() ),
+							new HashMap<>( decryptedPasswords )
+					)
+			);
+		}
+	}
+
+	private static List<ServerDefinition> readServerDefinitions(File settingsFile, byte[] settingsContent) {
 		try {
-			final SAXReader saxReader = buildSAXReader();
-			final InputSource inputSource = new InputSource( new FileInputStream( settingsFile ) );
+			return SettingsXmlReader.readServerDefinitions( settingsContent );
+		}
+		catch (XMLStreamException e) {
+			log.error( "Error reading Maven settings file : " + settingsFile.getAbsolutePath(), e );
+		}
 
-			try {
-				final List<Element> serverElements = seekServerElements( saxReader.read( inputSource ) );
+		return Collections.emptyList();
+	}
 
-				if ( serverElements.isEmpty() ) {
-					log.warn( "Maven settings.xml file did not contain <sever/> elements : " + settingsFile.getAbsolutePath() );
-					// EARLY EXIT
-					return Collections.emptyMap();
-				}
+	/**
+	 * Decrypts the master password and all server passwords up front, so that looking up credentials later on
+	 * does not have to wait for them.  Passwords with placeholders are left alone, as expanding them may read
+	 * configuration inputs, so that this may run on any thread.
+	 */
+	public void prepare() {
+		final List<ServerDefinition> servers = new ArrayList<>();
+		for ( ServerDefinition server : serversByRepoIdMap.values() ) {
+			if ( !ValueProcessorScanner.hasPlaceholders( server.getPassword() ) ) {
+				servers.add( server );
+			}
+		}
+		decryptServerPasswords( servers );
+	}
 
-				final Map<String,Credentials> result = new HashMap<>();
+	/**
+	 * Decrypts the passwords of the given servers in bulk (see {@link DecryptionPasswordStrategy#interpretPasswords}),
+	 * rather than one at a time as their credentials are looked up.
+	 *
+	 * @param repoIds The ids of the servers, or {@code null} for all of them; unknown ids are ignored
+	 */
+	public void decryptPasswords(Collection<String> repoIds) {
+		if ( repoIds == null ) {
+			decryptServerPasswords( serversByRepoIdMap.values() );
+			return;
+		}
 
-				for ( Element serverElement : serverElements ) {
-					final String id = DomHelper.extractValue( serverElement.element( "id" ) );
-					if ( id == null ) {
-						continue;
-					}
+		final List<ServerDefinition> servers = new ArrayList<>();
+		for ( String repoId : repoIds ) {
+			final ServerDefinition server = serversByRepoIdMap.get( repoId );
+			if ( server != null ) {
+				servers.add( server );
+			}
+		}
+		decryptServerPasswords( servers );
+	}
+
+	private void decryptServerPasswords(Collection<ServerDefinition> servers) {
+		final List<String> encryptedPasswords = new ArrayList<>();
+		for ( ServerDefinition server : servers ) {
+			final String passwordValue = valueProcessor.processValue( server.getPassword() );
+			if ( passwordValue != null
+					&& !decryptedPasswords.containsKey( passwordValue )
+					&& PasswordProcessor.INSTANCE.isEncrypted( passwordValue ) ) {
+				encryptedPasswords.add( passwordValue );
+			}
+		}
+		if ( encryptedPasswords.isEmpty() ) {
+			return;
+		}
+
+		final PasswordStrategy strategy = PasswordProcessor.INSTANCE.resolvePasswordStrategy(
+				encryptedPasswords.get( 0 ),
+				securitySettingsFile,
+				securitySettingsContent
+		);
+		if ( !( strategy instanceof DecryptionPasswordStrategy ) ) {
+			// no master password
+			return;
+		}
 
-					log.debug( "Adding credentials for server : " + id );
+		final long start = System.nanoTime();
+		final Map<String,String> decrypted = ( (DecryptionPasswordStrategy) strategy ).interpretPasswords(
+				encryptedPasswords
+		);
+		if ( !decrypted.isEmpty() ) {
+			decryptedPasswords.putAll( decrypted );
+			cacheOutdated.set( true );
+		}
+		log.debug(
+				"Decrypted " + decrypted.size() + " of " + encryptedPasswords.size() + " Maven passwords in "
+						+ ( System.nanoTime() - start ) / 1_000_000 + "ms"
+		);
+	}
 
-					final Credentials authentication = extractCredentials( serverElement );
-					if ( authentication != null ) {
-						result.put( id, authentication );
+	/**
+	 * Expands the placeholders of all servers, and indexes their urls, on the calling thread.  The configuration
+	 * inputs the placeholders refer to are thereby read (and remembered by a memoizing {@link ValueProcessor} such as
+	 * {@link ValueProcessorScanner} over a {@link ProviderFactoryPropertyMap}) before lookups fan out to other threads.
+	 */
+	public void expandPlaceholders() {
+		for ( ServerDefinition server : serversByRepoIdMap.values() ) {
+			valueProcessor.processValue( server.getUserName() );
+			valueProcessor.processValue( server.getPassword() );
+			valueProcessor.processValue( server.getPrivateKey() );
+			valueProcessor.processValue( server.getPassphrase() );
+		}
+		urlIndex();
+	}
+
+	/**
+	 * The mirrors defined by the settings, read on first access (even if the servers came from the
+	 * {@link CredentialsCache}).
+	 */
+	public Mirrors getMirrors() {
+		Mirrors result = mirrors;
+		if ( result == null ) {
+			synchronized ( this ) {
+				result = mirrors;
+				if ( result == null ) {
+					final List<List<MirrorDefinition>> mirrorsBySource = SettingsSources.mapConcurrently(
+							existing( settingsContents ),
+							i -> readMirrorDefinitions( sources.getFiles().get( i ), settingsContents.get( i ) )
+					);
+					final List<List<MirrorDefinition>> interpolated = new ArrayList<>( mirrorsBySource.size() );
+					for ( List<MirrorDefinition> mirrorsOfSource : mirrorsBySource ) {
+						interpolated.add( interpolate( mirrorsOfSource ) );
 					}
+					result = Mirrors.merge( interpolated );
+					mirrors = result;
 				}
-
-				return Collections.unmodifiableMap( result );
-			}
-			catch (DocumentException e) {
-				log.error( "Error reading Maven settings.xml", e );
 			}
 		}
-		catch ( FileNotFoundException e ) {
-			log.info( "Unable to locate Maven settings.xml" );
+		return result;
+	}
+
+	private static List<MirrorDefinition> readMirrorDefinitions(File settingsFile, byte[] settingsContent) {
+		try {
+			return SettingsXmlReader.readMirrorDefinitions( settingsContent );
+		}
+		catch (XMLStreamException e) {
+			log.error( "Error reading mirrors from Maven settings file : " + settingsFile.getAbsolutePath(), e );
 		}
 
-		return Collections.emptyMap();
+		return Collections.emptyList();
 	}
 
-	private SAXReader buildSAXReader() {
-		SAXReader saxReader = new SAXReader( new DocumentFactory() );
-		saxReader.setMergeAdjacentText( true );
-		return saxReader;
+	/**
+	 * Interpolates the urls of the mirrors just like the values of the servers, on the calling thread as the
+	 * placeholders may read configuration inputs.
+	 */
+	private List<MirrorDefinition> interpolate(List<MirrorDefinition> mirrors) {
+		final List<MirrorDefinition> result = new ArrayList<>( mirrors.size() );
+		for ( MirrorDefinition mirror : mirrors ) {
+			result.add(
+					new MirrorDefinition(
+							mirror.getId(),
+							valueProcessor.processValue( mirror.getUrl() ),
+							mirror.getMirrorOf(),
+							mirror.isBlocked()
+					)
+			);
+		}
+		return result;
 	}
 
-	private Credentials extractCredentials(Element serverElement) {
-		final String passwordValue = extractValue( serverElement.element( "password" ) );
+	private Credentials extractCredentials(ServerDefinition server) {
+		final long start = System.nanoTime();
+		final String passwordValue = valueProcessor.processValue( server.getPassword() );
 		if ( passwordValue == null ) {
 			return null;
 		}
 
-		final String password = PasswordProcessor.INSTANCE.resolvePasswordStrategy( passwordValue ).interpretPassword( passwordValue );
+		log.debug( "Resolving credentials for server : " + server.getId() );
 
-		final Credentials authentication = new Credentials();
-		authentication.setUserName( extractValue( serverElement.element( "username" ) ) );
-		authentication.setPassword( password );
-		authentication.setPrivateKey( extractValue( serverElement.element( "privateKey" ) ) );
-		authentication.setPassphrase( extractValue( serverElement.element( "passphrase" ) ) );
+		final String userName = valueProcessor.processValue( server.getUserName() );
+		final String privateKey = valueProcessor.processValue( server.getPrivateKey() );
+		final String passphrase = valueProcessor.processValue( server.getPassphrase() );
+		statistics.recordInterpolation( server.getId(), System.nanoTime() - start );
 
-		return authentication;
+		// servers with the same values share the same instance
+		return interner.intern( userName, interpretPassword( server.getId(), passwordValue ), privateKey, passphrase );
 	}
 
-	private String extractValue(Element element) {
-		return valueProcessor.processValue( DomHelper.extractValue( element ) );
+	private String interpretPassword(String repoId, String passwordValue) {
+		final long start = System.nanoTime();
+		final String decryptedPassword = decryptedPasswords.get( passwordValue );
+		if ( decryptedPassword != null ) {
+			statistics.recordDecryption( repoId, System.nanoTime() - start, true );
+			return decryptedPassword;
+		}
+
+		final PasswordStrategy strategy = PasswordProcessor.INSTANCE.resolvePasswordStrategy(
+				passwordValue,
+				securitySettingsFile,
+				securitySettingsContent
+		);
+		if ( strategy == null ) {
+			log.warn( "Unable to decrypt Maven password, no master password is available" );
+			return passwordValue;
+		}
+		if ( !( strategy instanceof DecryptionPasswordStrategy ) ) {
+			return strategy.interpretPassword( passwordValue );
+		}
+
+		// servers sharing the same encrypted password share a single decryption
+		final boolean[] decrypted = new boolean[1];
+		final String password = decryptedPasswords.computeIfAbsent(
+				passwordValue,
+				encrypted -> {
+					decrypted[0] = true;
+					try ( CredentialsEvents.Decryption event = CredentialsEvents.passwordDecryption( repoId ) ) {
+						final String result = strategy.interpretPassword( encrypted );
+						if ( encrypted.equals( result ) ) {
+							// decryption failed, do not remember that
+							return null;
+						}
+						event.setSuccessful( true );
+						cacheOutdated.set( true );
+						return result;
+					}
+				}
+		);
+		statistics.recordDecryption( repoId, System.nanoTime() - start, !decrypted[0] );
+		return password == null ? passwordValue : password;
 	}
 
-	@SuppressWarnings("unchecked")
-	private List<Element> seekServerElements(Document document) {
-		final Element settingsElement = document.getRootElement();
-		if ( settingsElement != null ) {
-			final Element serversElement = settingsElement.element( "servers" );
-			if ( serversElement != null ) {
-				return serversElement.elements( "server" );
+	@Override
+	public String determineRepositoryId(URI url) {
+		return urlIndex().match( url );
+	}
+
+	/**
+	 * The index of the server ids by the url prefixes of their {@literal <configuration/>}, built on first use.
+	 */
+	private UrlPrefixIndex urlIndex() {
+		UrlPrefixIndex index = urlIndex;
+		if ( index == null ) {
+			synchronized ( this ) {
+				index = urlIndex;
+				if ( index == null ) {
+					index = new UrlPrefixIndex();
+					for ( ServerDefinition server : serversByRepoIdMap.values() ) {
+						for ( String url : server.getUrls() ) {
+							try {
+								index.add( valueProcessor.processValue( url ), server.getId() );
+							}
+							catch (IllegalArgumentException e) {
+								log.warn( "Ignoring invalid url of server " + server.getId() + " : " + url );
+							}
+						}
+					}
+					urlIndex = index;
+				}
 			}
 		}
-
-		return Collections.emptyList();
+		return index;
 	}
 
 	@Override
 	public Credentials determineAuthentication(String repoId) {
-		return credentialsByRepoIdMap.get( repoId );
+		final ServerDefinition server = serversByRepoIdMap.get( repoId );
+		if ( server == null ) {
+			return null;
+		}
+
+		return credentialsByRepoIdMap.computeIfAbsent(
+				repoId,
+				id -> Optional.ofNullable( extractCredentials( server ) )
+		).orElse( null );
 	}
 }
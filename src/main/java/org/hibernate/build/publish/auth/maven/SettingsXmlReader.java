@@ -0,0 +1,357 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Streaming reader of the {@literal <servers/>} section of Maven's {@literal settings.xml}.  Nothing but the
+ * {@literal <server/>} values is retained, and reading stops as soon as the {@literal <servers/>} element
+ * is complete.  The {@literal <mirrors/>} section is read the same way, separately.
+ * <p/>
+ * Values are trimmed and have internal whitespace collapsed; empty values are reported as {@code null}.  Within the
+ * {@literal <configuration/>} of a server, only {@literal <url/>} elements are retained (see
+ * {@link ServerDefinition#getUrls()}).
+ */
+public final class SettingsXmlReader {
+	private static final XMLInputFactory XML_INPUT_FACTORY = buildInputFactory();
+
+	private static final int ID = 0;
+	private static final int USERNAME = 1;
+	private static final int PASSWORD = 2;
+	private static final int PRIVATE_KEY = 3;
+	private static final int PASSPHRASE = 4;
+
+	private static final int MIRROR_URL = 1;
+	private static final int MIRROR_OF = 2;
+	private static final int BLOCKED = 3;
+
+	private SettingsXmlReader() {
+	}
+
+	private static XMLInputFactory buildInputFactory() {
+		final XMLInputFactory factory = XMLInputFactory.newFactory();
+		factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+		factory.setProperty( XMLInputFactory.IS_NAMESPACE_AWARE, true );
+		return factory;
+	}
+
+	/**
+	 * Reads the server definitions from the given file, which is read in one go.
+	 */
+	public static List<ServerDefinition> readServerDefinitions(File settingsFile) throws IOException, XMLStreamException {
+		return readServerDefinitions( Files.readAllBytes( settingsFile.toPath() ) );
+	}
+
+	/**
+	 * Reads the server definitions from the given {@literal settings.xml} content.  Servers without an id
+	 * are ignored.
+	 */
+	public static List<ServerDefinition> readServerDefinitions(byte[] settingsContent) throws XMLStreamException {
+		final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader( new ByteArrayInputStream( settingsContent ) );
+		try {
+			return readServerDefinitions( reader );
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+	private static List<ServerDefinition> readServerDefinitions(XMLStreamReader reader) throws XMLStreamException {
+		List<ServerDefinition> servers = null;
+
+		// depth 1 is <settings/>, 2 is <servers/>, 3 is <server/>, 4 its values and 5 the urls of its configuration
+		int depth = 0;
+		boolean inServers = false;
+		String[] values = null;
+		boolean[] seen = null;
+		int value = -1;
+		boolean inConfiguration = false;
+		List<String> urls = null;
+		boolean inUrl = false;
+		StringBuilder text = null;
+
+		read:
+		while ( reader.hasNext() ) {
+			switch ( reader.next() ) {
+				case XMLStreamConstants.START_ELEMENT: {
+					depth++;
+					if ( depth == 2 ) {
+						inServers = "servers".equals( reader.getLocalName() );
+					}
+					else if ( depth == 3 && inServers ) {
+						if ( "server".equals( reader.getLocalName() ) ) {
+							values = new String[5];
+							seen = new boolean[5];
+							urls = null;
+						}
+					}
+					else if ( depth == 4 && values != null && "configuration".equals( reader.getLocalName() ) ) {
+						inConfiguration = true;
+					}
+					else if ( depth == 5 && inConfiguration && "url".equals( reader.getLocalName() ) ) {
+						inUrl = true;
+						text = reset( text );
+					}
+					else if ( depth == 4 && values != null ) {
+						value = valueIndex( reader.getLocalName() );
+						// like DOM navigation, only the first occurrence of each value counts
+						if ( value >= 0 && !seen[value] ) {
+							seen[value] = true;
+							text = reset( text );
+						}
+						else {
+							value = -1;
+						}
+					}
+					break;
+				}
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE: {
+					if ( ( depth == 4 && value >= 0 ) || ( depth == 5 && inUrl ) ) {
+						text.append( reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength() );
+					}
+					break;
+				}
+				case XMLStreamConstants.END_ELEMENT: {
+					if ( depth == 5 && inUrl ) {
+						final String url = normalize( text );
+						if ( url != null ) {
+							if ( urls == null ) {
+								urls = new ArrayList<>();
+							}
+							urls.add( url );
+						}
+						inUrl = false;
+					}
+					else if ( depth == 4 && inConfiguration ) {
+						inConfiguration = false;
+					}
+					else if ( depth == 4 && value >= 0 ) {
+						values[value] = normalize( text );
+						value = -1;
+					}
+					else if ( depth == 3 && values != null ) {
+						if ( values[ID] != null ) {
+							if ( servers == null ) {
+								servers = new ArrayList<>();
+							}
+							servers.add(
+									new ServerDefinition(
+											values[ID],
+											values[USERNAME],
+											values[PASSWORD],
+											values[PRIVATE_KEY],
+											values[PASSPHRASE],
+											urls == null ? Collections.emptyList() : urls
+									)
+							);
+						}
+						values = null;
+					}
+					else if ( depth == 2 && inServers ) {
+						// only the first <servers/> element is considered, ignore the rest of the document
+						break read;
+					}
+					depth--;
+					break;
+				}
+			}
+		}
+
+		return servers == null ? Collections.emptyList() : servers;
+	}
+
+	/**
+	 * Reads the mirror definitions from the given {@literal settings.xml} content, in their order of declaration.
+	 * Mirrors without an id, url or {@literal <mirrorOf/>} are ignored; {@literal <blocked/>} is kept along.
+	 */
+	public static List<MirrorDefinition> readMirrorDefinitions(byte[] settingsContent) throws XMLStreamException {
+		final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader( new ByteArrayInputStream( settingsContent ) );
+		try {
+			return readMirrorDefinitions( reader );
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+	private static List<MirrorDefinition> readMirrorDefinitions(XMLStreamReader reader) throws XMLStreamException {
+		List<MirrorDefinition> mirrors = null;
+
+		// depth 1 is <settings/>, 2 is <mirrors/>, 3 is <mirror/> and 4 its values
+		int depth = 0;
+		boolean inMirrors = false;
+		String[] values = null;
+		int value = -1;
+		StringBuilder text = null;
+
+		read:
+		while ( reader.hasNext() ) {
+			switch ( reader.next() ) {
+				case XMLStreamConstants.START_ELEMENT: {
+					depth++;
+					if ( depth == 2 ) {
+						inMirrors = "mirrors".equals( reader.getLocalName() );
+					}
+					else if ( depth == 3 && inMirrors ) {
+						values = "mirror".equals( reader.getLocalName() ) ? new String[4] : null;
+					}
+					else if ( depth == 4 && values != null ) {
+						value = mirrorValueIndex( reader.getLocalName() );
+						if ( value >= 0 && values[value] == null ) {
+							text = reset( text );
+						}
+						else {
+							value = -1;
+						}
+					}
+					break;
+				}
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE: {
+					if ( depth == 4 && value >= 0 ) {
+						text.append( reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength() );
+					}
+					break;
+				}
+				case XMLStreamConstants.END_ELEMENT: {
+					if ( depth == 4 && value >= 0 ) {
+						values[value] = normalize( text );
+						value = -1;
+					}
+					else if ( depth == 3 && values != null ) {
+						if ( values[ID] != null && values[MIRROR_URL] != null && values[MIRROR_OF] != null ) {
+							if ( mirrors == null ) {
+								mirrors = new ArrayList<>();
+							}
+							mirrors.add(
+									new MirrorDefinition(
+											values[ID],
+											values[MIRROR_URL],
+											values[MIRROR_OF],
+											Boolean.parseBoolean( values[BLOCKED] )
+									)
+							);
+						}
+						values = null;
+					}
+					else if ( depth == 2 && inMirrors ) {
+						// only the first <mirrors/> element is considered, ignore the rest of the document
+						break read;
+					}
+					depth--;
+					break;
+				}
+			}
+		}
+
+		return mirrors == null ? Collections.emptyList() : mirrors;
+	}
+
+	private static int mirrorValueIndex(String elementName) {
+		switch ( elementName ) {
+			case "id":
+				return ID;
+			case "url":
+				return MIRROR_URL;
+			case "mirrorOf":
+				return MIRROR_OF;
+			case "blocked":
+				return BLOCKED;
+			default:
+				return -1;
+		}
+	}
+
+	private static StringBuilder reset(StringBuilder text) {
+		if ( text == null ) {
+			return new StringBuilder();
+		}
+		text.setLength( 0 );
+		return text;
+	}
+
+	private static int valueIndex(String elementName) {
+		switch ( elementName ) {
+			case "id":
+				return ID;
+			case "username":
+				return USERNAME;
+			case "password":
+				return PASSWORD;
+			case "privateKey":
+				return PRIVATE_KEY;
+			case "passphrase":
+				return PASSPHRASE;
+			default:
+				return -1;
+		}
+	}
+
+	/**
+	 * Trims the value and collapses internal whitespace into a single space.
+	 *
+	 * @return The normalized value, or {@code null} if it is empty.
+	 */
+	static String normalize(CharSequence value) {
+		final int length = value.length();
+
+		int start = 0;
+		while ( start < length && isWhitespace( value.charAt( start ) ) ) {
+			start++;
+		}
+		if ( start == length ) {
+			return null;
+		}
+
+		int end = length;
+		while ( isWhitespace( value.charAt( end - 1 ) ) ) {
+			end--;
+		}
+
+		StringBuilder buffer = null;
+		for ( int i = start; i < end; i++ ) {
+			final char c = value.charAt( i );
+			if ( isWhitespace( c ) ) {
+				if ( buffer == null ) {
+					if ( c == ' ' && !isWhitespace( value.charAt( i + 1 ) ) ) {
+						// already normalized
+						continue;
+					}
+					buffer = new StringBuilder( end - start );
+					buffer.append( value, start, i );
+				}
+				buffer.append( ' ' );
+				while ( isWhitespace( value.charAt( i + 1 ) ) ) {
+					i++;
+				}
+			}
+			else if ( buffer != null ) {
+				buffer.append( c );
+			}
+		}
+
+		return buffer == null ? value.subSequence( start, end ).toString() : buffer.toString();
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+	}
+}
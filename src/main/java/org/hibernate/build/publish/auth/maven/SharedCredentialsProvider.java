@@ -0,0 +1,36 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.net.URI;
+
+import org.gradle.api.provider.Provider;
+
+import org.hibernate.build.publish.auth.Credentials;
+import org.hibernate.build.publish.auth.CredentialsProvider;
+
+/**
+ * Per-project {@link CredentialsProvider} delegating to the build-scoped {@link MavenRepoAuthService}.
+ * The service is only obtained when the first lookup happens.
+ */
+public class SharedCredentialsProvider implements CredentialsProvider {
+	private final Provider<MavenRepoAuthService> service;
+
+	public SharedCredentialsProvider(Provider<MavenRepoAuthService> service) {
+		this.service = service;
+	}
+
+	@Override
+	public Credentials determineAuthentication(String repoId) {
+		return service.get().determineAuthentication( repoId );
+	}
+
+	@Override
+	public String determineRepositoryId(URI url) {
+		return service.get().determineRepositoryId( url );
+	}
+}
@@ -6,15 +6,28 @@
  */
 package org.hibernate.build.publish.auth.maven.pwd;
 
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import org.sonatype.plexus.components.cipher.PlexusCipher;
-import org.sonatype.plexus.components.cipher.PlexusCipherException;
-
 /**
  * A {@link PasswordProcessor} which decrypts encrypted Maven passwords using the master password
  * from {@code ~/.m2/settings-security.xml}.
+ * <p/>
+ * Decrypted passwords are not remembered here: the strategy outlives the build (see {@link PasswordProcessor}), and
+ * the callers keep what they decrypted for as long as they need it.
+ * <p/>
+ * {@link MavenPasswordCipher} is not thread-safe: single decryptions are serialized on the shared cipher,
+ * while {@link #interpretPasswords bulk decryptions} give each worker a cipher of its own.
  *
  * @author Steve Ebersole
  * @author Gunnar Morling
@@ -23,25 +36,81 @@ public class DecryptionPasswordStrategy implements PasswordStrategy {
 
 	private static final Logger log = LoggerFactory.getLogger( PasswordProcessor.class );
 
-	private final PlexusCipher cipher;
+	private final MavenPasswordCipher cipher;
 	private final String masterPassword;
 
-	public DecryptionPasswordStrategy(PlexusCipher cipher, String masterPassword) {
+	public DecryptionPasswordStrategy(MavenPasswordCipher cipher, String masterPassword) {
 		this.cipher = cipher;
 		this.masterPassword = masterPassword;
 	}
 
 	@Override
 	public String interpretPassword(String password) {
-		return decrypt( cipher, password, masterPassword );
+		synchronized ( cipher ) {
+			return decrypt( cipher, password, masterPassword );
+		}
+	}
+
+	/**
+	 * Decrypts all the given passwords at once, spreading the work over the common fork-join pool.  Each worker
+	 * decrypts its share of the passwords with a cipher of its own.
+	 *
+	 * @return The decrypted passwords by encrypted password, for the ones which could be decrypted
+	 */
+	public Map<String,String> interpretPasswords(Collection<String> passwords) {
+		final List<String> pending = new ArrayList<>( new LinkedHashSet<>( passwords ) );
+		final Map<String,String> decryptedPasswords = new ConcurrentHashMap<>();
+
+		final int workers = Math.min( ForkJoinPool.getCommonPoolParallelism(), pending.size() );
+		if ( workers > 1 ) {
+			final int share = ( pending.size() + workers - 1 ) / workers;
+			IntStream.range( 0, workers ).parallel().forEach(
+					worker -> {
+						final MavenPasswordCipher workerCipher = newCipher();
+						final int end = Math.min( pending.size(), ( worker + 1 ) * share );
+						for ( int i = worker * share; i < end; i++ ) {
+							final String password = pending.get( i );
+							final String decrypted = workerCipher == null
+									? interpretPassword( password )
+									: decrypt( workerCipher, password, masterPassword );
+							put( decryptedPasswords, password, decrypted );
+						}
+					}
+			);
+		}
+		else {
+			for ( String password : pending ) {
+				put( decryptedPasswords, password, interpretPassword( password ) );
+			}
+		}
+
+		return decryptedPasswords;
+	}
+
+	private static void put(Map<String,String> decryptedPasswords, String password, String decrypted) {
+		if ( decrypted != null && !password.equals( decrypted ) ) {
+			decryptedPasswords.put( password, decrypted );
+		}
+	}
+
+	/**
+	 * @return A new cipher, or {@code null} if none can be created (in which case the shared one is used).
+	 */
+	private static MavenPasswordCipher newCipher() {
+		try {
+			return new MavenPasswordCipher();
+		}
+		catch (GeneralSecurityException e) {
+			return null;
+		}
 	}
 
-	public static String decrypt(PlexusCipher cipher, String encryptedPassword, String passPhrase) {
+	public static String decrypt(MavenPasswordCipher cipher, String encryptedPassword, String passPhrase) {
 		try {
-			return cipher.decryptDecorated( encryptedPassword, passPhrase );
+			return cipher.decrypt( encryptedPassword, passPhrase );
 		}
-		catch (PlexusCipherException e) {
-			log.warn( "Unable to decrypt Maven password using PlexusCipher", e );
+		catch (GeneralSecurityException e) {
+			log.warn( "Unable to decrypt Maven password", e );
 			return encryptedPassword;
 		}
 	}
@@ -6,8 +6,6 @@
  */
 package org.hibernate.build.publish.auth.maven.pwd;
 
-import java.util.regex.Pattern;
-
 /**
  * A {@link PasswordProcessor} for unencrypted Maven passwords which unescapes the given clear text password in case it
  * contains escaped curly braces.
@@ -23,7 +21,6 @@ public class DefaultPasswordStrategy implements PasswordStrategy {
 
 	@Override
 	public String interpretPassword(String password) {
-		return password.replaceAll( Pattern.quote( "\\{" ), "{" )
-				.replaceAll( Pattern.quote( "\\}" ), "}" );
+		return ValueProcessorScanner.unescape( password );
 	}
 }
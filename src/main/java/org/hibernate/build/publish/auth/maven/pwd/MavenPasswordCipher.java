@@ -0,0 +1,193 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven.pwd;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Maven's password encryption (as in {@literal mvn --encrypt-password}), compatible with plexus-cipher 1.4 but
+ * using nothing but the JDK.
+ * <p/>
+ * An encrypted value is decorated with braces, e.g. {@literal {hDBdf0HXN5IHCsc+...}}, and is the Base64 encoding
+ * of an 8 byte salt, a byte holding the length of the trailing padding, the AES/CBC encrypted bytes and the
+ * padding.  The AES key and initialization vector are the two halves of the SHA-256 digest of the pass phrase
+ * followed by the salt.
+ * <p/>
+ * Recognizing encrypted values ({@link #isEncrypted}) needs no cryptography at all.  Instances reuse their digest
+ * and cipher, and are therefore not thread-safe.
+ */
+public final class MavenPasswordCipher {
+	private static final int SALT_SIZE = 8;
+	private static final int KEY_SIZE = 16;
+	private static final int BLOCK_SIZE = 16;
+
+	private final MessageDigest digest;
+	private final Cipher cipher;
+	private final byte[] keyAndIv = new byte[KEY_SIZE * 2];
+
+	public MavenPasswordCipher() throws GeneralSecurityException {
+		this.digest = MessageDigest.getInstance( "SHA-256" );
+		this.cipher = Cipher.getInstance( "AES/CBC/PKCS5Padding" );
+	}
+
+	/**
+	 * Whether the given value contains an encrypted value decorated with braces.
+	 */
+	public static boolean isEncrypted(String value) {
+		return value != null && !value.isEmpty() && locateEncrypted( value ) >= 0;
+	}
+
+	/**
+	 * Decrypts the given value, decorated or not.  Empty values are returned as they are.
+	 *
+	 * @throws GeneralSecurityException If the value cannot be decrypted with the given pass phrase
+	 */
+	public String decrypt(String value, String passPhrase) throws GeneralSecurityException {
+		if ( value == null || value.isEmpty() ) {
+			return value;
+		}
+
+		final String encoded;
+		final long encryptedRange = locateEncrypted( value );
+		if ( encryptedRange >= 0 ) {
+			encoded = value.substring( (int) ( encryptedRange >>> 32 ), (int) encryptedRange );
+		}
+		else {
+			encoded = value;
+		}
+
+		final byte[] bytes;
+		try {
+			bytes = Base64.getMimeDecoder().decode( encoded );
+		}
+		catch (IllegalArgumentException e) {
+			throw new GeneralSecurityException( "Encrypted value is not Base64 encoded", e );
+		}
+		if ( bytes.length <= SALT_SIZE ) {
+			throw new GeneralSecurityException( "Encrypted value is too short" );
+		}
+		final int encryptedLength = bytes.length - SALT_SIZE - 1 - bytes[SALT_SIZE];
+		if ( encryptedLength < 0 || encryptedLength > bytes.length - SALT_SIZE - 1 ) {
+			throw new GeneralSecurityException( "Encrypted value has an invalid padding" );
+		}
+
+		init( Cipher.DECRYPT_MODE, passPhrase, bytes );
+		return new String( cipher.doFinal( bytes, SALT_SIZE + 1, encryptedLength ), StandardCharsets.UTF_8 );
+	}
+
+	/**
+	 * Encrypts and decorates the given value.  Empty values are returned as they are.
+	 */
+	public String encrypt(String value, String passPhrase) throws GeneralSecurityException {
+		if ( value == null || value.isEmpty() ) {
+			return value;
+		}
+
+		final SecureRandom random = new SecureRandom();
+		final byte[] salt = new byte[SALT_SIZE];
+		random.nextBytes( salt );
+		init( Cipher.ENCRYPT_MODE, passPhrase, salt );
+		final byte[] encrypted = cipher.doFinal( value.getBytes( StandardCharsets.UTF_8 ) );
+
+		final int padding = BLOCK_SIZE - ( SALT_SIZE + encrypted.length + 1 ) % BLOCK_SIZE;
+		final byte[] bytes = new byte[SALT_SIZE + 1 + encrypted.length + padding];
+		random.nextBytes( bytes );
+		System.arraycopy( salt, 0, bytes, 0, SALT_SIZE );
+		bytes[SALT_SIZE] = (byte) padding;
+		System.arraycopy( encrypted, 0, bytes, SALT_SIZE + 1, encrypted.length );
+
+		return '{' + Base64.getEncoder().encodeToString( bytes ) + '}';
+	}
+
+	private void init(int mode, String passPhrase, byte[] salt) throws GeneralSecurityException {
+		digest.update( passPhrase.getBytes( StandardCharsets.UTF_8 ) );
+		digest.update( salt, 0, SALT_SIZE );
+		digest.digest( keyAndIv, 0, keyAndIv.length );
+		cipher.init(
+				mode,
+				new SecretKeySpec( keyAndIv, 0, KEY_SIZE, "AES" ),
+				new IvParameterSpec( keyAndIv, KEY_SIZE, KEY_SIZE )
+		);
+	}
+
+	/**
+	 * Locates the encrypted value within a decorated one the way plexus-cipher does, i.e. as group 1 of
+	 * {@link Decoration#PATTERN} using {@code matches() || find()}.  Values without line terminators (which
+	 * {@literal settings.xml} values never have once normalized) are scanned without a regular expression.
+	 *
+	 * @return The start index of the encrypted value in the high bits and its end index in the low bits, or
+	 * {@code -1} if the value is not decorated
+	 */
+	private static long locateEncrypted(String value) {
+		for ( int i = 0; i < value.length(); i++ ) {
+			if ( isLineTerminator( value.charAt( i ) ) ) {
+				return Decoration.locateEncrypted( value );
+			}
+		}
+
+		// whatever closes a later opening brace also closes the first one
+		final int open = value.indexOf( '{' );
+		final int close = open < 0 ? -1 : closingBrace( value, open );
+		if ( close < 0 ) {
+			return -1;
+		}
+
+		// the pattern tries a brace preceded by an unescaped character before one which is not
+		if ( ( open == 0 || value.charAt( open - 1 ) == '\\' )
+				&& open + 1 < value.length() && value.charAt( open + 1 ) == '{' ) {
+			final int nextClose = closingBrace( value, open + 1 );
+			if ( nextClose >= 0 ) {
+				return encryptedRange( open + 2, nextClose );
+			}
+		}
+		return encryptedRange( open + 1, close );
+	}
+
+	/**
+	 * The first brace closing a value opened at the given index: not escaped, and not empty.
+	 */
+	private static int closingBrace(String value, int open) {
+		for ( int close = value.indexOf( '}', open + 2 ); close >= 0; close = value.indexOf( '}', close + 1 ) ) {
+			if ( value.charAt( close - 1 ) != '\\' ) {
+				return close;
+			}
+		}
+		return -1;
+	}
+
+	private static long encryptedRange(int start, int end) {
+		return ( (long) start << 32 ) | end;
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+	/**
+	 * The regular expression of plexus-cipher, only compiled if a value with line terminators is ever seen.
+	 */
+	private static class Decoration {
+		private static final Pattern PATTERN = Pattern.compile( ".*?[^\\\\]?\\{(.*?[^\\\\])\\}.*" );
+
+		private static long locateEncrypted(String value) {
+			final Matcher matcher = PATTERN.matcher( value );
+			if ( matcher.matches() || matcher.find() ) {
+				return encryptedRange( matcher.start( 1 ), matcher.end( 1 ) );
+			}
+			return -1;
+		}
+	}
+}
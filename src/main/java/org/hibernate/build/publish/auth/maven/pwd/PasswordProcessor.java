@@ -7,26 +7,37 @@
 package org.hibernate.build.publish.auth.maven.pwd;
 
 import java.io.File;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.hibernate.build.publish.jfr.CredentialsEvents;
 import org.hibernate.build.publish.util.PathHelper;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import org.sonatype.plexus.components.cipher.DefaultPlexusCipher;
-import org.sonatype.plexus.components.cipher.PlexusCipher;
-import org.sonatype.plexus.components.cipher.PlexusCipherException;
-import org.sonatype.plexus.components.sec.dispatcher.DefaultSecDispatcher;
-import org.sonatype.plexus.components.sec.dispatcher.SecDispatcherException;
-import org.sonatype.plexus.components.sec.dispatcher.SecUtil;
-import org.sonatype.plexus.components.sec.dispatcher.model.SettingsSecurity;
+import javax.xml.stream.XMLStreamException;
 
 import static org.hibernate.build.publish.auth.maven.pwd.DecryptionPasswordStrategy.decrypt;
 
 /**
+ * Determines how to interpret Maven passwords.  Nothing cryptographic is initialized until an encrypted password
+ * is actually seen.
+ *
  * @author Steve Ebersole
  */
 public class PasswordProcessor {
+	/**
+	 * Name of the system property overriding the location of {@literal settings-security.xml}.
+	 */
+	public static final String SECURITY_SETTINGS_LOCATION_OVERRIDE = "settings.security";
+	/**
+	 * Maven encrypts the master password with this (well-known) pass phrase.
+	 */
+	public static final String MASTER_PASSWORD_PASS_PHRASE = "settings.security";
 	private static final String DEFAULT_SECURITY_SETTINGS_LOCATION = "~/.m2/settings-security.xml";
 
 	private static final Logger log = LoggerFactory.getLogger( PasswordProcessor.class );
@@ -36,61 +47,198 @@ public class PasswordProcessor {
 	 */
 	public static final PasswordProcessor INSTANCE = new PasswordProcessor();
 
-	private final PlexusCipher cipher = buildCipher();
-	private DecryptionPasswordStrategy decryptionStrategy;
+	/**
+	 * Decryption strategies (i.e. decrypted master passwords) by the state of the security settings
+	 * file they were read from (its size and modification time, or its content when already read), so that
+	 * changes to the file are picked up by long-lived daemons.
+	 */
+	private final ConcurrentHashMap<SecuritySettingsStamp,Optional<DecryptionPasswordStrategy>> decryptionStrategies =
+			new ConcurrentHashMap<>();
 
+	/**
+	 * Determine the strategy for interpreting the given password.
+	 *
+	 * @return The strategy, or {@code null} if the password is encrypted but no master password is available
+	 */
 	public PasswordStrategy resolvePasswordStrategy(String password) {
-		if ( cipher != null && cipher.isEncryptedString( password ) ) {
-			if ( decryptionStrategy == null ) {
-				final File securitySettingsFile = determineSecuritySettingsFileLocation();
-				final String encryptedMasterPassword = securitySettingsFile.exists()
-						? extractMasterPassword( securitySettingsFile )
-						: null;
-
-				if ( encryptedMasterPassword != null ) {
-					log.debug( "Encrypted master password: " + encryptedMasterPassword );
-
-					final String passPhrase = decrypt(
-							cipher,
-							encryptedMasterPassword,
-							DefaultSecDispatcher.SYSTEM_PROPERTY_SEC_LOCATION
-					);
-
-					if ( passPhrase != null ) {
-						decryptionStrategy = new DecryptionPasswordStrategy( cipher, passPhrase );
-					}
-				}
-			}
+		return resolvePasswordStrategy( password, determineSecuritySettingsFileLocation() );
+	}
 
-			return decryptionStrategy;
+	/**
+	 * Determine the strategy for interpreting the given password, using the master password from
+	 * the given security settings file.
+	 *
+	 * @return The strategy, or {@code null} if the password is encrypted but no master password is available
+	 */
+	public PasswordStrategy resolvePasswordStrategy(String password, File securitySettingsFile) {
+		if ( isEncrypted( password ) ) {
+			return resolveDecryptionStrategy( SecuritySettingsStamp.ofFile( securitySettingsFile ) );
 		}
 
 		return DefaultPasswordStrategy.INSTANCE;
 	}
 
-	private String extractMasterPassword(File securitySettingsFile) {
+	/**
+	 * Determine the strategy for interpreting the given password, using the master password from
+	 * the given content of the security settings file, so that the file is not read again.
+	 *
+	 * @param securitySettingsContent The content of the security settings file, or {@code null} if it does not exist
+	 *
+	 * @return The strategy, or {@code null} if the password is encrypted but no master password is available
+	 */
+	public PasswordStrategy resolvePasswordStrategy(
+			String password,
+			File securitySettingsFile,
+			byte[] securitySettingsContent) {
+		if ( !isEncrypted( password ) ) {
+			return DefaultPasswordStrategy.INSTANCE;
+		}
+		if ( securitySettingsContent == null ) {
+			return null;
+		}
+
+		return resolveDecryptionStrategy( SecuritySettingsStamp.ofContent( securitySettingsFile, securitySettingsContent ) );
+	}
+
+	/**
+	 * Whether the given password is encrypted (and needs the master password to be decrypted).
+	 */
+	public boolean isEncrypted(String password) {
+		return MavenPasswordCipher.isEncrypted( password );
+	}
+
+	private DecryptionPasswordStrategy resolveDecryptionStrategy(SecuritySettingsStamp stamp) {
+		Optional<DecryptionPasswordStrategy> decryptionStrategy = decryptionStrategies.get( stamp );
+		if ( decryptionStrategy == null ) {
+			// concurrent callers wait for a single decryption of the master password
+			decryptionStrategy = decryptionStrategies.computeIfAbsent( stamp, this::buildDecryptionStrategy );
+			// forget about previous states of the file
+			decryptionStrategies.keySet().removeIf( known -> known.isOutdatedBy( stamp ) );
+		}
+
+		return decryptionStrategy.orElse( null );
+	}
+
+	private Optional<DecryptionPasswordStrategy> buildDecryptionStrategy(SecuritySettingsStamp stamp) {
+		final String encryptedMasterPassword = stamp.exists()
+				? extractMasterPassword( stamp )
+				: null;
+
+		if ( encryptedMasterPassword == null ) {
+			return Optional.empty();
+		}
+
+		log.debug( "Encrypted master password: " + encryptedMasterPassword );
+
+		final MavenPasswordCipher cipher = buildCipher();
+		if ( cipher == null ) {
+			return Optional.empty();
+		}
+
+		final String passPhrase;
+		try ( CredentialsEvents.Decryption event = CredentialsEvents.masterPasswordDecryption( stamp.file ) ) {
+			passPhrase = decrypt( cipher, encryptedMasterPassword, MASTER_PASSWORD_PASS_PHRASE );
+			event.setSuccessful( passPhrase != null );
+		}
+
+		return passPhrase == null
+				? Optional.empty()
+				: Optional.of( new DecryptionPasswordStrategy( cipher, passPhrase ) );
+	}
+
+	private String extractMasterPassword(SecuritySettingsStamp stamp) {
 		try {
-			SettingsSecurity settingsSecurity = SecUtil.read( securitySettingsFile.getAbsolutePath(), true );
-			return settingsSecurity == null ? null : settingsSecurity.getMaster();
+			return stamp.content == null
+					? SecuritySettingsXmlReader.readMasterPassword( stamp.file )
+					: SecuritySettingsXmlReader.readMasterPassword( stamp.content );
 		}
-		catch ( SecDispatcherException e) {
+		catch (IOException | XMLStreamException e) {
 			log.warn( "Unable to read Maven security settings file", e );
 			return null;
 		}
 	}
 
-	private File determineSecuritySettingsFileLocation() {
-		String location = System.getProperty( DefaultSecDispatcher.SYSTEM_PROPERTY_SEC_LOCATION, DEFAULT_SECURITY_SETTINGS_LOCATION );
+	/**
+	 * The location of Maven's {@literal settings-security.xml} file, which may not exist.
+	 */
+	public static File determineSecuritySettingsFileLocation() {
+		return determineSecuritySettingsFileLocation( System.getProperty( SECURITY_SETTINGS_LOCATION_OVERRIDE ) );
+	}
+
+	/**
+	 * The location of Maven's {@literal settings-security.xml} file given the value of the
+	 * {@value #SECURITY_SETTINGS_LOCATION_OVERRIDE} system property, which may be {@code null}.
+	 */
+	public static File determineSecuritySettingsFileLocation(String locationOverride) {
+		final String location = locationOverride == null ? DEFAULT_SECURITY_SETTINGS_LOCATION : locationOverride;
 		return new File( PathHelper.normalizePath( location ) );
 	}
 
-	private static PlexusCipher buildCipher() {
+	private static MavenPasswordCipher buildCipher() {
 		try {
-			return new DefaultPlexusCipher();
+			return new MavenPasswordCipher();
 		}
-		catch (PlexusCipherException e) {
-			log.error( "Unable to create PlexusCipher in order to decrypt Maven passwords" );
+		catch (GeneralSecurityException e) {
+			log.error( "Unable to create cipher in order to decrypt Maven passwords", e );
 			return null;
 		}
 	}
+
+	/**
+	 * Identifies a state of a security settings file: its path, and either its size and modification time or the
+	 * content read from it.
+	 */
+	private static class SecuritySettingsStamp {
+		private final File file;
+		private final long length;
+		private final long lastModified;
+		private final byte[] content;
+		private final int hashCode;
+
+		private SecuritySettingsStamp(File file, long length, long lastModified, byte[] content) {
+			this.file = file.getAbsoluteFile();
+			this.length = length;
+			this.lastModified = lastModified;
+			this.content = content;
+			this.hashCode = 31 * ( 31 * ( 31 * this.file.hashCode() + Long.hashCode( length ) )
+					+ Long.hashCode( lastModified ) ) + Arrays.hashCode( content );
+		}
+
+		private static SecuritySettingsStamp ofFile(File file) {
+			// both are 0 if the file does not exist
+			return new SecuritySettingsStamp( file, file.length(), file.lastModified(), null );
+		}
+
+		private static SecuritySettingsStamp ofContent(File file, byte[] content) {
+			return new SecuritySettingsStamp( file, content.length, 0, content );
+		}
+
+		private boolean exists() {
+			return content != null || lastModified != 0 || file.exists();
+		}
+
+		private boolean isOutdatedBy(SecuritySettingsStamp other) {
+			return file.equals( other.file ) && !equals( other );
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if ( this == o ) {
+				return true;
+			}
+			if ( !( o instanceof SecuritySettingsStamp ) ) {
+				return false;
+			}
+			final SecuritySettingsStamp that = (SecuritySettingsStamp) o;
+			return length == that.length
+					&& lastModified == that.lastModified
+					&& file.equals( that.file )
+					&& Arrays.equals( content, that.content );
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
 }
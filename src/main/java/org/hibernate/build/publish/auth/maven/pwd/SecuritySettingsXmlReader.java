@@ -0,0 +1,128 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven.pwd;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Streaming reader of the master password from Maven's {@literal settings-security.xml}, following
+ * {@literal <relocation/>} to another file (or URL) the way Maven does.
+ */
+public final class SecuritySettingsXmlReader {
+	private static final XMLInputFactory XML_INPUT_FACTORY = buildInputFactory();
+
+	private static final int MAX_RELOCATIONS = 8;
+
+	private SecuritySettingsXmlReader() {
+	}
+
+	private static XMLInputFactory buildInputFactory() {
+		final XMLInputFactory factory = XMLInputFactory.newFactory();
+		factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false );
+		return factory;
+	}
+
+	/**
+	 * Reads the (encrypted) master password.
+	 *
+	 * @return The master password, or {@code null} if none is defined.
+	 */
+	public static String readMasterPassword(File securitySettingsFile) throws IOException, XMLStreamException {
+		return readMasterPassword( Files.readAllBytes( securitySettingsFile.toPath() ) );
+	}
+
+	/**
+	 * Reads the (encrypted) master password from the content of the security settings already read.  Only
+	 * relocations are read from elsewhere.
+	 *
+	 * @return The master password, or {@code null} if none is defined.
+	 */
+	public static String readMasterPassword(byte[] securitySettingsContent) throws IOException, XMLStreamException {
+		String[] values = read( securitySettingsContent );
+		for ( int relocations = 0; values[1] != null; relocations++ ) {
+			if ( relocations == MAX_RELOCATIONS ) {
+				throw new IOException( "Too many relocations of the Maven security settings : " + values[1] );
+			}
+			values = read( readRelocation( values[1] ) );
+		}
+		return values[0];
+	}
+
+	private static byte[] readRelocation(String location) throws IOException {
+		if ( location.contains( "://" ) ) {
+			try ( InputStream stream = new URL( location ).openStream() ) {
+				final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+				final byte[] chunk = new byte[4096];
+				int read;
+				while ( ( read = stream.read( chunk ) ) > 0 ) {
+					buffer.write( chunk, 0, read );
+				}
+				return buffer.toByteArray();
+			}
+		}
+		return Files.readAllBytes( new File( location ).toPath() );
+	}
+
+	/**
+	 * @return The {@literal <master/>} and {@literal <relocation/>} values of the document
+	 */
+	private static String[] read(byte[] content) throws XMLStreamException {
+		final String[] values = new String[2];
+		final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader( new ByteArrayInputStream( content ) );
+		try {
+			// depth 1 is <settingsSecurity/>, 2 its values
+			int depth = 0;
+			int value = -1;
+			final StringBuilder text = new StringBuilder();
+			while ( reader.hasNext() ) {
+				switch ( reader.next() ) {
+					case XMLStreamConstants.START_ELEMENT: {
+						depth++;
+						if ( depth == 2 ) {
+							value = "master".equals( reader.getLocalName() )
+									? 0
+									: "relocation".equals( reader.getLocalName() ) ? 1 : -1;
+							text.setLength( 0 );
+						}
+						break;
+					}
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.CDATA:
+					case XMLStreamConstants.SPACE: {
+						if ( depth == 2 && value >= 0 ) {
+							text.append( reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength() );
+						}
+						break;
+					}
+					case XMLStreamConstants.END_ELEMENT: {
+						if ( depth == 2 && value >= 0 ) {
+							final String trimmed = text.toString().trim();
+							values[value] = trimmed.isEmpty() ? null : trimmed;
+							value = -1;
+						}
+						depth--;
+						break;
+					}
+				}
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return values;
+	}
+}
@@ -9,6 +9,8 @@ package org.hibernate.build.publish.auth.maven.pwd;
 import java.util.Optional;
 
 /**
+ * {@link PropertyMap} reading the current environment variables and system properties on every lookup.
+ *
  * @author Paul Scholz
  */
 public class SimplePropertyMap implements PropertyMap {
@@ -17,9 +19,8 @@ public class SimplePropertyMap implements PropertyMap {
 
     @Override
     public Optional<String> get(String key) {
-        if (key.startsWith("env")) {
-            final String s = key.replaceFirst("env\\.", "");
-            return Optional.ofNullable(System.getenv(s));
+        if (key.startsWith("env.")) {
+            return Optional.ofNullable(System.getenv(key.substring(4)));
         } else {
             return Optional.ofNullable(System.getProperty(key));
         }
@@ -11,7 +11,11 @@ import java.util.regex.Pattern;
 
 /**
  * @author Paul Scholz
+ *
+ * @deprecated Use {@link ValueProcessorScanner} instead, which avoids regular expressions and
+ * keeps the text following the last placeholder.
  */
+@Deprecated
 public final class ValueProcessorRegex implements ValueProcessor {
 
     /**
@@ -23,7 +27,11 @@ public final class ValueProcessorRegex implements ValueProcessor {
     private final PropertyMap systemPropertiesAndEnv;
 
     private ValueProcessorRegex() {
-        systemPropertiesAndEnv = SimplePropertyMap.INSTANCE;
+        this(SimplePropertyMap.INSTANCE);
+    }
+
+    public ValueProcessorRegex(PropertyMap systemPropertiesAndEnv) {
+        this.systemPropertiesAndEnv = systemPropertiesAndEnv;
     }
 
     @Override
@@ -0,0 +1,167 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven.pwd;
+
+import java.util.Optional;
+
+/**
+ * {@link ValueProcessor} scanning values once, without regular expressions, to expand {@code ${...}}
+ * placeholders.  Placeholders which cannot be resolved are left intact.
+ * <p/>
+ * The same scanner also handles the unescaping of {@code \{} and {@code \}} in clear text passwords (see
+ * {@link #unescape}), either on its own or in the same pass as the expansion.  Values containing neither
+ * {@code $} nor {@code \} are returned as-is without allocating.
+ */
+public final class ValueProcessorScanner implements ValueProcessor {
+	/**
+	 * Singleton access
+	 */
+	public static final ValueProcessorScanner INSTANCE = new ValueProcessorScanner();
+
+	private final PropertyMap systemPropertiesAndEnv;
+
+	private ValueProcessorScanner() {
+		this( SimplePropertyMap.INSTANCE );
+	}
+
+	/**
+	 * @param systemPropertiesAndEnv The source of the values placeholders are expanded to
+	 */
+	public ValueProcessorScanner(PropertyMap systemPropertiesAndEnv) {
+		this.systemPropertiesAndEnv = systemPropertiesAndEnv;
+	}
+
+	@Override
+	public String processValue(String value) {
+		return scan( value, systemPropertiesAndEnv, false );
+	}
+
+	/**
+	 * Replaces {@code \{} and {@code \}} with {@code {} and {@code }}.
+	 */
+	public static String unescape(String value) {
+		return scan( value, null, true );
+	}
+
+	/**
+	 * Whether the value contains a well-formed placeholder, i.e. whether expanding it may read any property.
+	 */
+	public static boolean hasPlaceholders(String value) {
+		if ( value == null ) {
+			return false;
+		}
+		for ( int i = value.indexOf( '$' ); i >= 0; i = value.indexOf( '$', i + 1 ) ) {
+			if ( i + 1 < value.length() && value.charAt( i + 1 ) == '{' && placeholderEnd( value, i + 2 ) >= 0 ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Scans the value once, expanding placeholders and/or unescaping curly braces.  When doing both,
+	 * the expanded property values are unescaped as well, just as if unescaping had been applied
+	 * to the result of the expansion.
+	 *
+	 * @param value The value to process; may be {@code null}
+	 * @param properties The properties to expand placeholders from, or {@code null} to not expand them
+	 * @param unescape Whether to unescape curly braces
+	 *
+	 * @return The processed value, which is {@code value} itself if there was nothing to process
+	 */
+	public static String scan(String value, PropertyMap properties, boolean unescape) {
+		if ( value == null ) {
+			return null;
+		}
+
+		final int length = value.length();
+		int position = nextCandidate( value, 0, properties != null, unescape );
+		if ( position < 0 ) {
+			return value;
+		}
+
+		StringBuilder buffer = null;
+		int copied = 0;
+
+		while ( position >= 0 ) {
+			final char c = value.charAt( position );
+			final char next = position + 1 < length ? value.charAt( position + 1 ) : 0;
+
+			if ( c == '\\' ) {
+				if ( next == '{' || next == '}' ) {
+					buffer = append( buffer, value, copied, position, length );
+					buffer.append( next );
+					copied = position + 2;
+					position = nextCandidate( value, copied, properties != null, unescape );
+				}
+				else {
+					position = nextCandidate( value, position + 1, properties != null, unescape );
+				}
+			}
+			else {
+				// '$'
+				final int end = next == '{' ? placeholderEnd( value, position + 2 ) : -1;
+				if ( end < 0 ) {
+					position = nextCandidate( value, position + 1, properties != null, unescape );
+					continue;
+				}
+
+				final Optional<String> replacement = properties.get( value.substring( position + 2, end ) );
+				if ( replacement.isPresent() ) {
+					buffer = append( buffer, value, copied, position, length );
+					buffer.append( unescape ? unescape( replacement.get() ) : replacement.get() );
+					copied = end + 1;
+				}
+				// unresolvable placeholders are kept as they are
+				position = nextCandidate( value, end + 1, properties != null, unescape );
+			}
+		}
+
+		if ( buffer == null ) {
+			return value;
+		}
+		return buffer.append( value, copied, length ).toString();
+	}
+
+	private static StringBuilder append(StringBuilder buffer, String value, int from, int to, int length) {
+		if ( buffer == null ) {
+			buffer = new StringBuilder( length + 16 );
+		}
+		return buffer.append( value, from, to );
+	}
+
+	private static int nextCandidate(String value, int from, boolean dollar, boolean backslash) {
+		for ( int i = from; i < value.length(); i++ ) {
+			final char c = value.charAt( i );
+			if ( ( dollar && c == '$' ) || ( backslash && c == '\\' ) ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return The position of the closing brace of a placeholder whose name starts at the given position,
+	 * or {@code -1} if there is no well-formed placeholder there.
+	 */
+	private static int placeholderEnd(String value, int nameStart) {
+		int i = nameStart;
+		while ( i < value.length() && isNameCharacter( value.charAt( i ) ) ) {
+			i++;
+		}
+		return i > nameStart && i < value.length() && value.charAt( i ) == '}' ? i : -1;
+	}
+
+	private static boolean isNameCharacter(char c) {
+		return ( c >= 'a' && c <= 'z' )
+				|| ( c >= 'A' && c <= 'Z' )
+				|| ( c >= '0' && c <= '9' )
+				|| c == '-'
+				|| c == '.'
+				|| c == '_';
+	}
+}
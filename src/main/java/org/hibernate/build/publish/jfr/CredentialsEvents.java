@@ -0,0 +1,141 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.jfr;
+
+import java.io.File;
+
+import org.hibernate.build.publish.auth.CredentialsProvider;
+
+/**
+ * Java Flight Recorder events for the work done by the plugin, so that its share of the configuration time
+ * shows up in recordings (e.g. {@code -XX:StartFlightRecording}).  Events carry repository ids, file paths and
+ * provider classes, never any secret.
+ * <p/>
+ * On JVMs without JFR, or when the events are disabled, a shared no-op instance is returned and the JFR API is
+ * never touched.  Each event is timed from its creation until it is closed:
+ * <pre>
+ * try ( CredentialsEvents.Lookup event = CredentialsEvents.lookup( repoId, provider ) ) {
+ *     ...
+ *     event.setFound( credentials != null );
+ * }
+ * </pre>
+ */
+public final class CredentialsEvents {
+	private static final boolean AVAILABLE = isFlightRecorderAvailable();
+
+	static final Disabled DISABLED = new Disabled();
+
+	private CredentialsEvents() {
+	}
+
+	private static boolean isFlightRecorderAvailable() {
+		try {
+			Class.forName( "jdk.jfr.Event" );
+			return jdk.jfr.FlightRecorder.isAvailable();
+		}
+		catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Reading and parsing of {@literal settings.xml}.
+	 */
+	public static SettingsRead settingsRead(File settingsFile) {
+		return AVAILABLE ? FlightRecorderEvents.settingsRead( settingsFile ) : DISABLED;
+	}
+
+	/**
+	 * Decryption of the master password from {@literal settings-security.xml}.
+	 */
+	public static Decryption masterPasswordDecryption(File securitySettingsFile) {
+		return AVAILABLE ? FlightRecorderEvents.masterPasswordDecryption( securitySettingsFile ) : DISABLED;
+	}
+
+	/**
+	 * Decryption of the password of a server.
+	 */
+	public static Decryption passwordDecryption(String repoId) {
+		return AVAILABLE ? FlightRecorderEvents.passwordDecryption( repoId ) : DISABLED;
+	}
+
+	/**
+	 * A {@link CredentialsProvider#determineAuthentication} call.
+	 */
+	public static Lookup lookup(String repoId, CredentialsProvider provider) {
+		return AVAILABLE ? FlightRecorderEvents.lookup( repoId, provider.getClass() ) : DISABLED;
+	}
+
+	/**
+	 * Application of credentials to a repository, whose outcome is {@link Application#setResolved set} once known.
+	 */
+	public static Application application(String repoName, String scheme) {
+		return AVAILABLE ? FlightRecorderEvents.application( repoName, scheme ) : DISABLED;
+	}
+
+	public interface Event extends AutoCloseable {
+		/**
+		 * Ends and records the event.
+		 */
+		@Override
+		void close();
+	}
+
+	public interface SettingsRead extends Event {
+		void setServerCount(int serverCount);
+
+		void setCached(boolean cached);
+	}
+
+	public interface Decryption extends Event {
+		void setSuccessful(boolean successful);
+	}
+
+	public interface Lookup extends Event {
+		void setFound(boolean found);
+	}
+
+	public interface Application extends Event {
+		/**
+		 * @param repoId The repository id the credentials were looked up by
+		 * @param provider The provider of the credentials, or {@code null} if none had any
+		 */
+		void setResolved(String repoId, CredentialsProvider provider);
+
+		void setApplied(boolean applied);
+	}
+
+	static final class Disabled implements SettingsRead, Decryption, Lookup, Application {
+		@Override
+		public void setServerCount(int serverCount) {
+		}
+
+		@Override
+		public void setCached(boolean cached) {
+		}
+
+		@Override
+		public void setSuccessful(boolean successful) {
+		}
+
+		@Override
+		public void setFound(boolean found) {
+		}
+
+		@Override
+		public void setResolved(String repoId, CredentialsProvider provider) {
+		}
+
+		@Override
+		public void setApplied(boolean applied) {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.jfr;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import org.hibernate.build.publish.auth.CredentialsProvider;
+
+/**
+ * The actual JFR event types behind {@link CredentialsEvents}.  Only loaded once JFR is known to be available.
+ */
+final class FlightRecorderEvents {
+	private static final String PREFIX = "org.hibernate.build.mavenRepoAuth.";
+	private static final String CATEGORY = "Maven Repository Auth";
+
+	private FlightRecorderEvents() {
+	}
+
+	static CredentialsEvents.SettingsRead settingsRead(File settingsFile) {
+		final SettingsReadEvent event = new SettingsReadEvent();
+		if ( !event.isEnabled() ) {
+			return CredentialsEvents.DISABLED;
+		}
+		event.settingsFile = settingsFile.getAbsolutePath();
+		event.begin();
+		return event;
+	}
+
+	static CredentialsEvents.Decryption masterPasswordDecryption(File securitySettingsFile) {
+		final MasterPasswordDecryptionEvent event = new MasterPasswordDecryptionEvent();
+		if ( !event.isEnabled() ) {
+			return CredentialsEvents.DISABLED;
+		}
+		event.securitySettingsFile = securitySettingsFile.getAbsolutePath();
+		event.begin();
+		return event;
+	}
+
+	static CredentialsEvents.Decryption passwordDecryption(String repoId) {
+		final PasswordDecryptionEvent event = new PasswordDecryptionEvent();
+		if ( !event.isEnabled() ) {
+			return CredentialsEvents.DISABLED;
+		}
+		event.repoId = repoId;
+		event.begin();
+		return event;
+	}
+
+	static CredentialsEvents.Lookup lookup(String repoId, Class<?> providerClass) {
+		final LookupEvent event = new LookupEvent();
+		if ( !event.isEnabled() ) {
+			return CredentialsEvents.DISABLED;
+		}
+		event.repoId = repoId;
+		event.providerClass = providerClass;
+		event.begin();
+		return event;
+	}
+
+	static CredentialsEvents.Application application(String repoName, String scheme) {
+		final ApplicationEvent event = new ApplicationEvent();
+		if ( !event.isEnabled() ) {
+			return CredentialsEvents.DISABLED;
+		}
+		event.repoName = repoName;
+		event.scheme = scheme;
+		event.begin();
+		return event;
+	}
+
+	@Name(PREFIX + "SettingsRead")
+	@Label("Maven Settings Read")
+	@Description("Reading and parsing of the servers of Maven's settings.xml")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class SettingsReadEvent extends Event implements CredentialsEvents.SettingsRead {
+		@Label("Settings File")
+		String settingsFile;
+
+		@Label("Server Count")
+		int serverCount;
+
+		@Label("From Cache")
+		boolean cached;
+
+		@Override
+		public void setServerCount(int serverCount) {
+			this.serverCount = serverCount;
+		}
+
+		@Override
+		public void setCached(boolean cached) {
+			this.cached = cached;
+		}
+
+		@Override
+		public void close() {
+			commit();
+		}
+	}
+
+	@Name(PREFIX + "MasterPasswordDecryption")
+	@Label("Maven Master Password Decryption")
+	@Description("Decryption of the master password from Maven's settings-security.xml")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class MasterPasswordDecryptionEvent extends Event implements CredentialsEvents.Decryption {
+		@Label("Security Settings File")
+		String securitySettingsFile;
+
+		@Label("Successful")
+		boolean successful;
+
+		@Override
+		public void setSuccessful(boolean successful) {
+			this.successful = successful;
+		}
+
+		@Override
+		public void close() {
+			commit();
+		}
+	}
+
+	@Name(PREFIX + "PasswordDecryption")
+	@Label("Maven Password Decryption")
+	@Description("Decryption of the password of a server from Maven's settings.xml")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class PasswordDecryptionEvent extends Event implements CredentialsEvents.Decryption {
+		@Label("Repository Id")
+		String repoId;
+
+		@Label("Successful")
+		boolean successful;
+
+		@Override
+		public void setSuccessful(boolean successful) {
+			this.successful = successful;
+		}
+
+		@Override
+		public void close() {
+			commit();
+		}
+	}
+
+	@Name(PREFIX + "Lookup")
+	@Label("Credentials Lookup")
+	@Description("Lookup of the credentials for a repository from a credentials provider")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class LookupEvent extends Event implements CredentialsEvents.Lookup {
+		@Label("Repository Id")
+		String repoId;
+
+		@Label("Provider Class")
+		Class<?> providerClass;
+
+		@Label("Found")
+		boolean found;
+
+		@Override
+		public void setFound(boolean found) {
+			this.found = found;
+		}
+
+		@Override
+		public void close() {
+			commit();
+		}
+	}
+
+	@Name(PREFIX + "Application")
+	@Label("Credentials Application")
+	@Description("Lookup and application of the credentials of a repository")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class ApplicationEvent extends Event implements CredentialsEvents.Application {
+		@Label("Repository Name")
+		String repoName;
+
+		@Label("Scheme")
+		String scheme;
+
+		@Label("Repository Id")
+		String repoId;
+
+		@Label("Provider Class")
+		Class<?> providerClass;
+
+		@Label("Applied")
+		boolean applied;
+
+		@Override
+		public void setResolved(String repoId, CredentialsProvider provider) {
+			this.repoId = repoId;
+			this.providerClass = provider == null ? null : provider.getClass();
+		}
+
+		@Override
+		public void setApplied(boolean applied) {
+			this.applied = applied;
+		}
+
+		@Override
+		public void close() {
+			commit();
+		}
+	}
+}
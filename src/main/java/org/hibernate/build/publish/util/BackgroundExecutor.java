@@ -0,0 +1,52 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The executor of the background work of the plugin (reading settings files, decrypting passwords).  Runs each
+ * task on a virtual thread when the JDK supports them (21 or later), on a daemon thread of a cached pool otherwise.
+ * Either way, nothing lingers in the Gradle daemon once the work is done, and tasks waiting for other tasks
+ * never starve the executor.
+ */
+public final class BackgroundExecutor {
+	private static final Logger log = LoggerFactory.getLogger( BackgroundExecutor.class );
+
+	/**
+	 * Singleton access
+	 */
+	public static final Executor INSTANCE = buildExecutor();
+
+	private BackgroundExecutor() {
+	}
+
+	private static Executor buildExecutor() {
+		try {
+			final Executor executor = (Executor) Executors.class.getMethod( "newVirtualThreadPerTaskExecutor" )
+					.invoke( null );
+			log.debug( "Using virtual threads for background work" );
+			return executor;
+		}
+		catch (ReflectiveOperationException | RuntimeException e) {
+			// before JDK 21, or preview features not enabled on JDK 19 and 20
+			final AtomicInteger count = new AtomicInteger();
+			return Executors.newCachedThreadPool(
+					runnable -> {
+						final Thread thread = new Thread( runnable, "maven-repo-auth-" + count.incrementAndGet() );
+						thread.setDaemon( true );
+						return thread;
+					}
+			);
+		}
+	}
+}
@@ -13,8 +13,9 @@ import java.util.stream.Stream;
 import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
 import org.gradle.api.artifacts.repositories.PasswordCredentials;
 import org.hibernate.build.publish.auth.Credentials;
-import org.hibernate.build.publish.auth.CredentialsProvider;
 import org.hibernate.build.publish.auth.CredentialsProviderRegistry;
+import org.hibernate.build.publish.auth.ResolutionStatistics;
+import org.hibernate.build.publish.jfr.CredentialsEvents;
 
 /**
  * @author Steve Ebersole
@@ -27,38 +28,76 @@ public class Helper {
 	public static void applyCredentials(
 			MavenArtifactRepository repo,
 			CredentialsProviderRegistry credentialsProviderRegistry) {
-		if ( !AUTHENTICATABLE_PROTOCOLS.contains( repo.getUrl().getScheme().toLowerCase() ) ) {
+		applyCredentials( repo, credentialsProviderRegistry, null );
+	}
+
+	/**
+	 * @param owner The owner of the repository (e.g. the path of its project) for the {@link ResolutionStatistics}
+	 */
+	public static void applyCredentials(
+			MavenArtifactRepository repo,
+			CredentialsProviderRegistry credentialsProviderRegistry,
+			String owner) {
+		applyCredentials( repo, credentialsProviderRegistry, owner, null );
+	}
+
+	/**
+	 * @param owner The owner of the repository (e.g. the path of its project) for the {@link ResolutionStatistics}
+	 * @param repositoryId The id to locate the credentials by (e.g. the id of the mirror of the repository) rather
+	 * than the name or url of the repository; may be {@code null}
+	 */
+	public static void applyCredentials(
+			MavenArtifactRepository repo,
+			CredentialsProviderRegistry credentialsProviderRegistry,
+			String owner,
+			String repositoryId) {
+		if ( !isAuthenticatable( repo ) ) {
 				return;
 		}
 
-		final Credentials credentials = locateAuthenticationCredentials( repo.getName(), credentialsProviderRegistry );
+		final String scheme = repo.getUrl().getScheme();
+		try ( CredentialsEvents.Application event = CredentialsEvents.application( repo.getName(), scheme ) ) {
+			final long start = System.nanoTime();
+			final CredentialsProviderRegistry.Resolution resolution = repositoryId == null
+					? credentialsProviderRegistry.resolve( repo.getName(), repo.getUrl() )
+					: credentialsProviderRegistry.resolve( repositoryId );
+			event.setResolved( resolution.getRepositoryId(), resolution.getProvider() );
+			credentialsProviderRegistry.getStatistics().recordRepository(
+					owner,
+					repo.getName(),
+					resolution.getRepositoryId(),
+					scheme,
+					resolution.getProvider(),
+					resolution.isMemoized(),
+					System.nanoTime() - start
+			);
+
+			final Credentials credentials = resolution.getCredentials();
+			if ( credentials == null ) {
+				return;
+			}
 
-		if ( credentials == null ) {
-			return;
+			applyCredentials( repo, credentials );
+			event.setApplied( true );
 		}
+	}
+
+	/**
+	 * Whether the repository uses a protocol credentials apply to.
+	 */
+	public static boolean isAuthenticatable(MavenArtifactRepository repo) {
+		return AUTHENTICATABLE_PROTOCOLS.contains( repo.getUrl().getScheme().toLowerCase() );
+	}
 
+	public static void applyCredentials(MavenArtifactRepository repo, Credentials credentials) {
 		final PasswordCredentials repoCredentials = repo.getCredentials();
 		repoCredentials.setUsername( credentials.getUserName() );
 		repoCredentials.setPassword( credentials.getPassword() );
-
 	}
 
 	public static Credentials locateAuthenticationCredentials(
 			String repositoryId,
 			CredentialsProviderRegistry credentialsProviderRegistry) {
-		for ( CredentialsProvider provider : credentialsProviderRegistry.providers() ) {
-			final Credentials authentication = provider.determineAuthentication( repositoryId );
-			if ( authentication == null ) {
-				continue;
-			}
-
-			if ( authentication.getPassword() == null ) {
-				continue;
-			}
-
-			return authentication;
-		}
-
-		return null;
+		return credentialsProviderRegistry.locateCredentials( repositoryId );
 	}
 }
@@ -0,0 +1,67 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CredentialsInternerTest {
+	@Test
+	public void testEqualCredentialsAreShared() {
+		final CredentialsInterner interner = new CredentialsInterner();
+
+		final Credentials first = interner.intern( mutable( "tron", new String( "secret" ) ) );
+		final Credentials second = interner.intern( mutable( "tron", new String( "secret" ) ) );
+		final Credentials other = interner.intern( mutable( "clu", new String( "secret" ) ) );
+
+		assertSame( first, second );
+		assertNotSame( first, other );
+		// values are shared as well
+		assertSame( first.getPassword(), other.getPassword() );
+		assertSame( first, interner.intern( "tron", "secret", null, null ) );
+		assertEquals( 2, interner.size() );
+		assertNull( interner.intern( null ) );
+	}
+
+	@Test
+	public void testLocatedCredentialsCanBeModified() {
+		final CredentialsInterner interner = new CredentialsInterner();
+		final CredentialsProvider provider = repoId -> mutable( "tron", "secret" );
+		final CredentialsProviderRegistry registry =
+				new CredentialsProviderRegistry( provider, ResolutionStatistics::new, () -> interner );
+
+		final Credentials located = registry.locateCredentials( "first" );
+		located.setPassword( "changed" );
+
+		assertEquals( "secret", registry.locateCredentials( "first" ).getPassword() );
+		assertEquals( "secret", registry.resolve( "second" ).getCredentials().getPassword() );
+	}
+
+	@Test
+	public void testRegistrySharesInstances() {
+		final CredentialsInterner interner = new CredentialsInterner();
+		final CredentialsProvider provider = repoId -> mutable( "tron", "secret" );
+
+		final Credentials first = new CredentialsProviderRegistry( provider, ResolutionStatistics::new, () -> interner )
+				.resolve( "first" ).getCredentials();
+		final Credentials second = new CredentialsProviderRegistry( provider, ResolutionStatistics::new, () -> interner )
+				.resolve( "second" ).getCredentials();
+
+		assertSame( first, second );
+	}
+
+	private static Credentials mutable(String userName, String password) {
+		final Credentials credentials = new Credentials();
+		credentials.setUserName( userName );
+		credentials.setPassword( password );
+		return credentials;
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CredentialsProviderFactoryTest {
+	@Test
+	public void testLazyCreation() {
+		final CountingFactory factory = new CountingFactory( 0, Collections.singleton( "corp-*" ), "factory" );
+		final CredentialsProviderRegistry registry = new CredentialsProviderRegistry(
+				repoId -> "known".equals( repoId ) ? credentials( "registered" ) : null
+		);
+		registry.addProviderFactories( Collections.singleton( factory ) );
+
+		// answered before reaching the factory
+		assertEquals( "registered", registry.locateCredentials( "known" ).getUserName() );
+		// not a repository the factory supports
+		assertNull( registry.locateCredentials( "other" ) );
+		assertEquals( 0, factory.created.get() );
+
+		assertEquals( "factory", registry.locateCredentials( "corp-releases" ).getUserName() );
+		assertEquals( "factory", registry.locateCredentials( "corp-snapshots" ).getUserName() );
+		assertEquals( 1, factory.created.get() );
+	}
+
+	@Test
+	public void testPriorities() {
+		final CredentialsProviderRegistry registry = new CredentialsProviderRegistry( repoId -> credentials( "settings" ) );
+		final CountingFactory low = new CountingFactory( -10, Collections.emptySet(), "low" );
+		final CountingFactory high = new CountingFactory( 10, Collections.emptySet(), "high" );
+		final CountingFactory higher = new CountingFactory( 20, Collections.singleton( "special" ), "higher" );
+		registry.addProviderFactories( Arrays.asList( low, high, higher ) );
+
+		assertEquals( "high", registry.locateCredentials( "any" ).getUserName() );
+		assertEquals( "higher", registry.locateCredentials( "special" ).getUserName() );
+		// the Maven settings have the credentials before the low priority provider is reached
+		assertEquals( 0, low.created.get() );
+	}
+
+	@Test
+	public void testUrlPrefixes() {
+		final CountingFactory factory = new CountingFactory(
+				0,
+				Collections.emptySet(),
+				"factory",
+				"https://repo.example.org/maven"
+		);
+		final CredentialsProviderRegistry registry = new CredentialsProviderRegistry();
+		registry.addProviderFactories( Collections.singleton( factory ) );
+
+		assertNull( registry.locateRepositoryId( URI.create( "https://elsewhere.example.org/maven" ) ) );
+		assertEquals( 0, factory.created.get() );
+		assertEquals(
+				"mapped",
+				registry.locateRepositoryId( URI.create( "https://repo.example.org/maven/releases" ) )
+		);
+		assertEquals( 1, factory.created.get() );
+	}
+
+	@Test
+	public void testSharedAcrossRegistries() {
+		final CountingFactory factory = new CountingFactory( 0, Collections.emptySet(), "factory" );
+		final DiscoveredProviders discovered = DiscoveredProviders.of( Collections.singleton( factory ) );
+		final CredentialsProviderRegistry first = new CredentialsProviderRegistry();
+		first.addDiscoveredProviders( discovered );
+		final CredentialsProviderRegistry second = new CredentialsProviderRegistry();
+		second.addDiscoveredProviders( discovered );
+
+		assertEquals( "factory", first.locateCredentials( "releases" ).getUserName() );
+		assertEquals( "factory", second.locateCredentials( "releases" ).getUserName() );
+		assertEquals( 1, factory.created.get() );
+	}
+
+	@Test
+	public void testDiscovery() {
+		final CredentialsProviderRegistry registry = new CredentialsProviderRegistry();
+		registry.discoverProviders();
+
+		final DiscoveredCredentialsProvider discovered =
+				(DiscoveredCredentialsProvider) registry.providers().iterator().next();
+		assertFalse( discovered.isCreated() );
+		assertEquals( "discovered", registry.locateCredentials( "discovered-repo" ).getUserName() );
+		assertTrue( discovered.isCreated() );
+	}
+
+	@Test
+	public void testPatterns() {
+		assertTrue( DiscoveredCredentialsProvider.matches( "corp-*", "corp-releases" ) );
+		assertTrue( DiscoveredCredentialsProvider.matches( "*-releases", "corp-releases" ) );
+		assertTrue( DiscoveredCredentialsProvider.matches( "c*p-*s", "corp-releases" ) );
+		assertTrue( DiscoveredCredentialsProvider.matches( "*", "" ) );
+		assertTrue( DiscoveredCredentialsProvider.matches( "exact", "exact" ) );
+		assertFalse( DiscoveredCredentialsProvider.matches( "exact", "exactly" ) );
+		assertFalse( DiscoveredCredentialsProvider.matches( "corp-*", "other-releases" ) );
+		assertFalse( DiscoveredCredentialsProvider.matches( "*-releases", "corp-snapshots" ) );
+	}
+
+	private static Credentials credentials(String userName) {
+		final Credentials credentials = new Credentials();
+		credentials.setUserName( userName );
+		credentials.setPassword( "secret" );
+		return credentials;
+	}
+
+	private static class CountingFactory implements CredentialsProviderFactory {
+		private final int priority;
+		private final Collection<String> repositoryIdPatterns;
+		private final String userName;
+		private final Collection<String> urlPrefixes;
+		private final AtomicInteger created = new AtomicInteger();
+
+		private CountingFactory(int priority, Collection<String> repositoryIdPatterns, String userName, String... urlPrefixes) {
+			this.priority = priority;
+			this.repositoryIdPatterns = repositoryIdPatterns;
+			this.userName = userName;
+			this.urlPrefixes = Arrays.asList( urlPrefixes );
+		}
+
+		@Override
+		public int getPriority() {
+			return priority;
+		}
+
+		@Override
+		public Collection<String> getRepositoryIdPatterns() {
+			return repositoryIdPatterns;
+		}
+
+		@Override
+		public Collection<String> getUrlPrefixes() {
+			return urlPrefixes;
+		}
+
+		@Override
+		public CredentialsProvider create() {
+			created.incrementAndGet();
+			return new CredentialsProvider() {
+				@Override
+				public Credentials determineAuthentication(String repoId) {
+					return credentials( userName );
+				}
+
+				@Override
+				public String determineRepositoryId(URI url) {
+					return "mapped";
+				}
+			};
+		}
+	}
+
+	/**
+	 * Listed in {@literal META-INF/services} of the test resources.
+	 */
+	public static class DiscoverableFactory implements CredentialsProviderFactory {
+		@Override
+		public int getPriority() {
+			return -1;
+		}
+
+		@Override
+		public Collection<String> getRepositoryIdPatterns() {
+			return Collections.singleton( "discovered-*" );
+		}
+
+		@Override
+		public CredentialsProvider create() {
+			return repoId -> credentials( "discovered" );
+		}
+	}
+}
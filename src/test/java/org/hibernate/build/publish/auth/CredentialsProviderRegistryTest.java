@@ -0,0 +1,59 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CredentialsProviderRegistryTest {
+	@Test
+	public void testMemoizedResolutionIsReused() {
+		final CredentialsProviderRegistry registry = new CredentialsProviderRegistry( repoId -> credentials() );
+
+		assertFalse( registry.resolve( "repo" ).isMemoized() );
+		final CredentialsProviderRegistry.Resolution memoized = registry.resolve( "repo" );
+		assertTrue( memoized.isMemoized() );
+		assertSame( memoized, registry.resolve( "repo" ) );
+	}
+
+	@Test
+	public void testSharedResolutions() {
+		final AtomicInteger lookups = new AtomicInteger();
+		final CredentialsProvider provider = repoId -> {
+			lookups.incrementAndGet();
+			return credentials();
+		};
+		final CredentialsProviderRegistry.SharedResolutions shared = new CredentialsProviderRegistry.SharedResolutions();
+		final CredentialsProviderRegistry first = new CredentialsProviderRegistry( provider );
+		first.shareResolutions( shared );
+		final CredentialsProviderRegistry second = new CredentialsProviderRegistry( provider );
+		second.shareResolutions( shared );
+
+		assertFalse( first.resolve( "repo" ).isMemoized() );
+		assertTrue( second.resolve( "repo" ).isMemoized() );
+		assertEquals( 1, lookups.get() );
+
+		// a registry whose providers change no longer shares, and leaves the others alone
+		second.appendAuthenticationProvider( repoId -> null );
+		assertFalse( second.resolve( "repo" ).isMemoized() );
+		assertTrue( first.resolve( "repo" ).isMemoized() );
+		assertEquals( 2, lookups.get() );
+	}
+
+	private static Credentials credentials() {
+		final Credentials credentials = new Credentials();
+		credentials.setUserName( "tron" );
+		credentials.setPassword( "secret" );
+		return credentials;
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth;
+
+import java.io.StringWriter;
+import java.net.URI;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResolutionStatisticsTest {
+
+	@Test
+	public void testReport() throws Exception {
+		final CredentialsProvider provider = repoId -> {
+			if ( !"known".equals( repoId ) ) {
+				return null;
+			}
+			final Credentials credentials = new Credentials();
+			credentials.setUserName( "tron" );
+			credentials.setPassword( "top-secret" );
+			return credentials;
+		};
+
+		final ResolutionStatistics statistics = new ResolutionStatistics();
+		final CredentialsProviderRegistry registry = new CredentialsProviderRegistry( provider, () -> statistics );
+
+		for ( String repoId : new String[] { "known", "known", "unknown" } ) {
+			final CredentialsProviderRegistry.Resolution resolution = registry.resolve( repoId );
+			statistics.recordRepository(
+					":a",
+					repoId,
+					resolution.getRepositoryId(),
+					"https",
+					resolution.getProvider(),
+					resolution.isMemoized(),
+					5
+			);
+		}
+		statistics.recordRepository( ":b", "other", "other", "https", null, false, 7 );
+
+		final StringWriter json = new StringWriter();
+		statistics.writeJson( json, ":a"::equals );
+		final String report = json.toString();
+
+		assertFalse( report.contains( "top-secret" ) );
+		assertFalse( report.contains( "tron" ) );
+		assertFalse( report.contains( "\"other\"" ) );
+
+		final String providerName = provider.getClass().getName();
+		assertEquals(
+				"{\n" +
+						"  \"settings\": null,\n" +
+						"  \"repositories\": [\n" +
+						"    {\n" +
+						"      \"project\": \":a\",\n" +
+						"      \"name\": \"known\",\n" +
+						"      \"repoId\": \"known\",\n" +
+						"      \"scheme\": \"https\",\n" +
+						"      \"provider\": \"" + providerName + "\",\n" +
+						"      \"fromCache\": false,\n" +
+						"      \"lookupNanos\": 5\n" +
+						"    },\n" +
+						"    {\n" +
+						"      \"project\": \":a\",\n" +
+						"      \"name\": \"known\",\n" +
+						"      \"repoId\": \"known\",\n" +
+						"      \"scheme\": \"https\",\n" +
+						"      \"provider\": \"" + providerName + "\",\n" +
+						"      \"fromCache\": true,\n" +
+						"      \"lookupNanos\": 5\n" +
+						"    },\n" +
+						"    {\n" +
+						"      \"project\": \":a\",\n" +
+						"      \"name\": \"unknown\",\n" +
+						"      \"repoId\": \"unknown\",\n" +
+						"      \"scheme\": \"https\",\n" +
+						"      \"provider\": null,\n" +
+						"      \"fromCache\": false,\n" +
+						"      \"lookupNanos\": 5\n" +
+						"    }\n" +
+						"  ],\n" +
+						"  \"lookupsByRepoId\": {\n" +
+						"    \"known\": 2,\n" +
+						"    \"unknown\": 1\n" +
+						"  },\n" +
+						"  \"callsByProvider\": {\n" +
+						"    \"" + providerName + "\": 2\n" +
+						"  },\n" +
+						"  \"missesByProvider\": {\n" +
+						"    \"" + providerName + "\": 1\n" +
+						"  }\n" +
+						"}\n",
+				report
+		);
+	}
+
+	@Test
+	public void testTimingsOfServerMatchedByUrl() throws Exception {
+		final CredentialsProvider provider = repoId -> {
+			if ( !"nexus".equals( repoId ) ) {
+				return null;
+			}
+			final Credentials credentials = new Credentials();
+			credentials.setUserName( "tron" );
+			credentials.setPassword( "top-secret" );
+			return credentials;
+		};
+
+		final ResolutionStatistics statistics = new ResolutionStatistics();
+		final CredentialsProviderRegistry registry = new CredentialsProviderRegistry( provider, () -> statistics );
+		registry.setMatchByUrl( true );
+		registry.mapUrl( "https://nexus.example.org/repository", "nexus" );
+
+		// as recorded by the provider reading the Maven settings
+		statistics.recordInterpolation( "nexus", 3 );
+		statistics.recordDecryption( "nexus", 4, false );
+
+		final CredentialsProviderRegistry.Resolution resolution = registry.resolve(
+				"snapshots",
+				URI.create( "https://nexus.example.org/repository/snapshots" )
+		);
+		assertEquals( "nexus", resolution.getRepositoryId() );
+		statistics.recordRepository(
+				":a",
+				"snapshots",
+				resolution.getRepositoryId(),
+				"https",
+				resolution.getProvider(),
+				resolution.isMemoized(),
+				5
+		);
+
+		final StringWriter json = new StringWriter();
+		statistics.writeJson( json, owner -> true );
+		final String report = json.toString();
+
+		assertTrue( report.contains( "\"name\": \"snapshots\",\n      \"repoId\": \"nexus\"," ) );
+		assertTrue( report.contains( "\"interpolateNanos\": 3," ) );
+		assertTrue( report.contains( "\"decryptNanos\": 4," ) );
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth;
+
+import java.net.URI;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class UrlPrefixIndexTest {
+	@Test
+	public void testLongestPrefix() {
+		final UrlPrefixIndex index = new UrlPrefixIndex();
+		index.add( "https://repo.example.org", "host" );
+		index.add( "https://repo.example.org/maven/", "maven" );
+		index.add( "https://repo.example.org/maven/snapshots", "snapshots" );
+		index.add( "https://repo.example.org:8443/maven", "other-port" );
+
+		assertEquals( "host", match( index, "https://repo.example.org/other" ) );
+		assertEquals( "maven", match( index, "https://REPO.example.org/maven" ) );
+		assertEquals( "maven", match( index, "HTTPS://repo.example.org:443/maven/releases/" ) );
+		assertEquals( "snapshots", match( index, "https://user@repo.example.org/maven/snapshots/org/hibernate" ) );
+		// whole segments only
+		assertEquals( "maven", match( index, "https://repo.example.org/maven/snapshots2" ) );
+		assertEquals( "other-port", match( index, "https://repo.example.org:8443/maven/releases" ) );
+		assertNull( match( index, "https://repo.example.org:8443/" ) );
+		assertNull( match( index, "https://elsewhere.example.org/maven" ) );
+		assertNull( match( index, "file:///tmp/maven" ) );
+	}
+
+	@Test
+	public void testSchemeMustMatch() {
+		final UrlPrefixIndex index = new UrlPrefixIndex();
+		index.add( "https://repo.example.org/maven", "secure" );
+
+		// https credentials never leak to http
+		assertNull( match( index, "http://repo.example.org/maven/releases" ) );
+		assertNull( match( index, "sftp://repo.example.org/maven/releases" ) );
+
+		index.add( "http://repo.example.org/maven", "plain" );
+		assertEquals( "plain", match( index, "http://repo.example.org:80/maven/releases" ) );
+		assertEquals( "secure", match( index, "https://repo.example.org/maven/releases" ) );
+	}
+
+	@Test
+	public void testRegistryMatchByUrl() {
+		final CredentialsProviderRegistry registry = new CredentialsProviderRegistry(
+				new CredentialsProvider() {
+					@Override
+					public Credentials determineAuthentication(String repoId) {
+						final Credentials credentials = new Credentials();
+						credentials.setUserName( repoId );
+						credentials.setPassword( "secret" );
+						return "unknown".equals( repoId ) ? null : credentials;
+					}
+
+					@Override
+					public String determineRepositoryId(URI url) {
+						return url.getPath().startsWith( "/provided" ) ? "provided" : null;
+					}
+				}
+		);
+		registry.mapUrl( "https://repo.example.org/declared", "declared" );
+		registry.mapUrl( "https://repo.example.org/unknown", "unknown" );
+
+		// not enabled
+		assertEquals( "name", userName( registry, "name", "https://repo.example.org/declared" ) );
+
+		registry.setMatchByUrl( true );
+		assertEquals( "declared", userName( registry, "name", "https://repo.example.org/declared/releases" ) );
+		assertEquals( "provided", userName( registry, "name", "https://repo.example.org/provided" ) );
+		assertEquals( "name", userName( registry, "name", "https://repo.example.org/elsewhere" ) );
+		// no credentials for the mapped id
+		assertEquals( "name", userName( registry, "name", "https://repo.example.org/unknown" ) );
+	}
+
+	private static String match(UrlPrefixIndex index, String url) {
+		return index.match( URI.create( url ) );
+	}
+
+	private static String userName(CredentialsProviderRegistry registry, String name, String url) {
+		return registry.resolve( name, URI.create( url ) ).getCredentials().getUserName();
+	}
+}
@@ -19,6 +19,8 @@ import org.gradle.api.tasks.TaskCollection;
 import org.gradle.api.tasks.Upload;
 import org.gradle.testfixtures.ProjectBuilder;
 
+import org.hibernate.build.publish.auth.CredentialsProviderRegistry;
+
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.EnvironmentVariables;
@@ -173,6 +175,31 @@ public class AuthTests {
 		verifyCredentials( project, serverId, "admin", "top-secret-password" );
 	}
 
+	@Test
+	public void testCredentialsNotAppliedUntilNeeded() {
+		System.setProperty(
+				SettingsXmlCredentialsProvider.SETTINGS_LOCATION_OVERRIDE,
+				TestHelper.settingsXmlFile().getAbsolutePath()
+		);
+
+		final ProjectBuilder projectBuilder = ProjectBuilder.builder().withProjectDir( TestHelper.projectDirectory( "simple" ) );
+		final Project project = projectBuilder.build();
+
+		project.getPluginManager().apply( "maven" );
+		project.getPluginManager().apply( "maven-publish" );
+
+		final String serverId = "authenticated-server";
+
+		applyRepositories( project, serverId, HTTP_REPO );
+
+		project.getPluginManager().apply( MavenRepoAuthPlugin.class );
+		( (ProjectInternal) project ).evaluate();
+
+		// dependency repos get their credentials as they are configured, publishing ones once scheduled
+		check( "tron", "user", (MavenArtifactRepository) project.getRepositories().getByName( serverId ) );
+		checkPublishingRepositories( project, serverId, null, null );
+	}
+
 	private void applyRepositories(Project project, String repoName, String repoUrl) {
 		// ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
 		// Define the dependency repo
@@ -219,10 +246,33 @@ public class AuthTests {
 			String serverId,
 			String expectedUsername,
 			String expectedPassword) {
+		// as if all the tasks were scheduled
+		final CredentialsProviderRegistry registry = project.getExtensions()
+				.getByType( MavenRepoAuthExtension.class )
+				.getCredentialsProviderRegistry();
+		LegacyHandler.applyCredentials( project, project.getTasks(), registry );
+		PublishingRepoHandler.applyCredentials( project, project.getTasks(), registry );
+
+		checkRepositories( project, serverId, expectedUsername, expectedPassword );
+	}
+
+	private void checkRepositories(
+			Project project,
+			String serverId,
+			String expectedUsername,
+			String expectedPassword) {
 		// artifact repo
 		final MavenArtifactRepository repo = (MavenArtifactRepository) project.getRepositories().getByName( serverId );
 		check( expectedUsername, expectedPassword, repo );
 
+		checkPublishingRepositories( project, serverId, expectedUsername, expectedPassword );
+	}
+
+	private void checkPublishingRepositories(
+			Project project,
+			String serverId,
+			String expectedUsername,
+			String expectedPassword) {
 		// legacy upload task
 		final Upload uploadArchivesTask = (Upload) project.getTasks().findByName( "uploadArchives" );
 		assert uploadArchivesTask != null;
@@ -0,0 +1,162 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+
+public class CredentialsCacheTest {
+	private static final String ENCRYPTED = "{c2hvcnQ=}";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File directory;
+	private CredentialsCache cache;
+	private File settingsFile;
+	private File securitySettingsFile;
+
+	@Before
+	public void setUp() throws Exception {
+		directory = new File( temporaryFolder.getRoot(), "cache" );
+		cache = new CredentialsCache( directory );
+		settingsFile = write( "settings.xml", "<settings/>" );
+		securitySettingsFile = write( "settings-security.xml", "<settingsSecurity/>" );
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		cache.store( key(), settings() );
+
+		final CredentialsCache.CachedSettings loaded = cache.load( key() );
+		assertNotNull( loaded );
+		assertEquals( 1, loaded.getServers().size() );
+		final ServerDefinition server = loaded.getServers().get( 0 );
+		assertEquals( "corporate", server.getId() );
+		assertEquals( "user", server.getUserName() );
+		assertEquals( ENCRYPTED, server.getPassword() );
+		assertNull( server.getPrivateKey() );
+		assertEquals( Collections.singletonList( "https://nexus.example.org" ), server.getUrls() );
+		assertEquals( "secret", loaded.getDecryptedPasswords().get( ENCRYPTED ) );
+	}
+
+	@Test
+	public void testContentChangeInvalidates() throws Exception {
+		cache.store( key(), settings() );
+		final long lastModified = settingsFile.lastModified();
+
+		// same size and modification time, different content
+		write( "settings.xml", "<settingz/>" );
+		settingsFile.setLastModified( lastModified );
+		assertNull( cache.load( key() ) );
+	}
+
+	@Test
+	public void testSecuritySettingsChangeInvalidates() throws Exception {
+		cache.store( key(), settings() );
+
+		write( "settings-security.xml", "<settingsSecurity><master/></settingsSecurity>" );
+		assertNull( cache.load( key() ) );
+	}
+
+	@Test
+	public void testStampChangeInvalidates() throws Exception {
+		cache.store( key(), settings() );
+
+		// same content, different modification time
+		settingsFile.setLastModified( settingsFile.lastModified() - 60_000 );
+		assertNull( cache.load( key() ) );
+	}
+
+	@Test
+	public void testDamagedEntryIsRejected() throws Exception {
+		final CredentialsCache.Key key = key();
+		cache.store( key, settings() );
+		final File entry = entry();
+		final byte[] bytes = Files.readAllBytes( entry.toPath() );
+
+		final byte[] tampered = bytes.clone();
+		tampered[tampered.length - 1] ^= 1;
+		Files.write( entry.toPath(), tampered );
+		assertNull( cache.load( key ) );
+
+		for ( int length : new int[] { 0, 3, 5, 20, bytes.length - 1 } ) {
+			Files.write( entry.toPath(), Arrays.copyOf( bytes, length ) );
+			assertNull( cache.load( key ) );
+		}
+	}
+
+	@Test
+	public void testOwnerOnlyPermissions() throws Exception {
+		assumeTrue( FileSystems.getDefault().supportedFileAttributeViews().contains( "posix" ) );
+
+		cache.store( key(), settings() );
+
+		assertEquals(
+				PosixFilePermissions.fromString( "rwx------" ),
+				Files.getPosixFilePermissions( directory.toPath() )
+		);
+		assertEquals(
+				PosixFilePermissions.fromString( "rw-------" ),
+				Files.getPosixFilePermissions( entry().toPath() )
+		);
+	}
+
+	private CredentialsCache.Key key() throws Exception {
+		final List<File> files = Arrays.asList( settingsFile, securitySettingsFile );
+		final List<byte[]> contents = Arrays.asList(
+				Files.readAllBytes( settingsFile.toPath() ),
+				Files.readAllBytes( securitySettingsFile.toPath() )
+		);
+		return cache.key( files, contents );
+	}
+
+	private File entry() {
+		final File[] entries = directory.listFiles( ( dir, name ) -> name.endsWith( ".bin" ) );
+		assertNotNull( entries );
+		assertEquals( 1, entries.length );
+		return entries[0];
+	}
+
+	private static CredentialsCache.CachedSettings settings() {
+		return new CredentialsCache.CachedSettings(
+				Collections.singletonList(
+						new ServerDefinition(
+								"corporate",
+								"user",
+								ENCRYPTED,
+								null,
+								null,
+								Collections.singletonList( "https://nexus.example.org" )
+						)
+				),
+				Collections.singletonMap( ENCRYPTED, "secret" )
+		);
+	}
+
+	private File write(String name, String content) throws Exception {
+		final File file = new File( temporaryFolder.getRoot(), name );
+		Files.write( file.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+		return file;
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.testfixtures.ProjectBuilder;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MirrorsTest {
+	private static final URI REMOTE = URI.create( "https://repo.example.org/maven" );
+	private static final URI REMOTE_HTTP = URI.create( "http://repo.example.org/maven" );
+	private static final URI LOCAL = URI.create( "http://localhost:8081/maven" );
+	private static final URI FILE = URI.create( "file:///tmp/maven" );
+
+	@Test
+	public void testMirrorOf() {
+		assertTrue( mirrorOf( "*" ).matches( "central", FILE ) );
+
+		assertTrue( mirrorOf( "central" ).matches( "central", REMOTE ) );
+		assertFalse( mirrorOf( "central" ).matches( "other", REMOTE ) );
+
+		assertTrue( mirrorOf( "external:*" ).matches( "central", REMOTE ) );
+		assertFalse( mirrorOf( "external:*" ).matches( "central", LOCAL ) );
+		assertFalse( mirrorOf( "external:*" ).matches( "central", FILE ) );
+
+		assertTrue( mirrorOf( "external:http:*" ).matches( "central", REMOTE_HTTP ) );
+		assertFalse( mirrorOf( "external:http:*" ).matches( "central", REMOTE ) );
+
+		assertTrue( mirrorOf( "first, second" ).matches( "second", REMOTE ) );
+		assertFalse( mirrorOf( "first, second" ).matches( "third", REMOTE ) );
+
+		assertTrue( mirrorOf( "*,!internal" ).matches( "central", REMOTE ) );
+		assertFalse( mirrorOf( "*,!internal" ).matches( "internal", REMOTE ) );
+		assertFalse( mirrorOf( "external:*,!internal" ).matches( "internal", REMOTE ) );
+		// the first explicit mention decides
+		assertTrue( mirrorOf( "internal,!internal" ).matches( "internal", REMOTE ) );
+	}
+
+	@Test
+	public void testApplyMirrorIsIdempotent() {
+		final Project project = ProjectBuilder.builder().build();
+		final MavenArtifactRepository central = project.getRepositories().mavenCentral();
+		final Mirrors mirrors = new Mirrors(
+				Collections.singletonList( new MirrorDefinition( "local", "http://localhost:8081/central", "central" ) )
+		);
+
+		final MirrorDefinition mirror = DependencyRepoHandler.applyMirror( central, mirrors );
+		assertEquals( "local", mirror.getId() );
+		assertEquals( LOCAL.resolve( "/central" ), central.getUrl() );
+		// the repository is no longer recognizable as Maven Central by its url
+		assertEquals( mirror, DependencyRepoHandler.applyMirror( central, mirrors ) );
+		assertEquals( LOCAL.resolve( "/central" ), central.getUrl() );
+	}
+
+	@Test
+	public void testSelect() {
+		final Mirrors mirrors = new Mirrors(
+				Arrays.asList(
+						new MirrorDefinition( "everything", "https://everything", "*" ),
+						new MirrorDefinition( "central-mirror", "https://central", "central" )
+				)
+		);
+
+		// an exact mirrorOf wins over the order of declaration
+		assertEquals( "central-mirror", mirrors.select( "central", REMOTE ).getId() );
+		assertEquals( "everything", mirrors.select( "other", REMOTE ).getId() );
+		assertNull( Mirrors.NONE.select( "central", REMOTE ) );
+	}
+
+	@Test
+	public void testHttpBlocker() {
+		// as in conf/settings.xml of Maven 3.8.1 and later
+		final Mirrors mirrors = new Mirrors(
+				Collections.singletonList(
+						new MirrorDefinition( "maven-default-http-blocker", "http://0.0.0.0/", "external:http:*", true )
+				)
+		);
+
+		assertNull( mirrors.select( "legacy", REMOTE_HTTP ) );
+
+		final Project project = ProjectBuilder.builder().build();
+		final MavenArtifactRepository legacy = project.getRepositories().maven( repo -> {
+			repo.setName( "legacy" );
+			repo.setUrl( REMOTE_HTTP );
+		} );
+		assertNull( DependencyRepoHandler.applyMirror( legacy, mirrors ) );
+		assertEquals( REMOTE_HTTP, legacy.getUrl() );
+	}
+
+	@Test
+	public void testMerge() {
+		final Mirrors mirrors = Mirrors.merge(
+				Arrays.asList(
+						Arrays.asList(
+								new MirrorDefinition( "corporate", "https://global", "*" ),
+								new MirrorDefinition( "global-only", "https://global-only", "other" )
+						),
+						Collections.emptyList(),
+						Collections.singletonList( new MirrorDefinition( "corporate", "https://user", "external:*" ) )
+				)
+		);
+
+		assertEquals( 2, mirrors.getMirrors().size() );
+		assertEquals( "https://user", mirrors.getMirrors().get( 0 ).getUrl() );
+		assertEquals( "global-only", mirrors.getMirrors().get( 1 ).getId() );
+	}
+
+	private static MirrorDefinition mirrorOf(String mirrorOf) {
+		return new MirrorDefinition( "mirror", "https://mirror.example.org", mirrorOf );
+	}
+}
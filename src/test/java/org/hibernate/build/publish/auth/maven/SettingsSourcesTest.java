@@ -0,0 +1,157 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.build.publish.auth.Credentials;
+import org.hibernate.build.publish.auth.CredentialsInterner;
+import org.hibernate.build.publish.auth.ResolutionStatistics;
+import org.hibernate.build.publish.auth.maven.pwd.ValueProcessorScanner;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SettingsSourcesTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testLocate() throws Exception {
+		final File mavenHome = temporaryFolder.newFolder( "maven" );
+		final File projectDirectory = temporaryFolder.newFolder( "project" );
+		final File userSettings = new File( temporaryFolder.getRoot(), "user-settings.xml" );
+
+		final Map<String,String> environment = new HashMap<>();
+		environment.put( "M2_HOME", mavenHome.getAbsolutePath() );
+		final Map<String,String> systemProperties = new HashMap<>();
+		systemProperties.put( SettingsSources.SETTINGS_LOCATION_OVERRIDE, userSettings.getAbsolutePath() );
+
+		assertEquals(
+				Arrays.asList(
+						new File( projectDirectory, ".mvn/settings.xml" ),
+						new File( mavenHome, "conf/settings.xml" ),
+						userSettings
+				),
+				SettingsSources.locate( new MapInputs( systemProperties, environment ), projectDirectory ).getFiles()
+		);
+
+		// the system property has precedence over the environment
+		systemProperties.put( SettingsSources.MAVEN_HOME, projectDirectory.getAbsolutePath() );
+		assertEquals(
+				new File( projectDirectory, "conf/settings.xml" ),
+				SettingsSources.locate( new MapInputs( systemProperties, environment ), null ).getFiles().get( 0 )
+		);
+
+		// without a Maven installation nor project, only the user settings are left
+		systemProperties.remove( SettingsSources.MAVEN_HOME );
+		assertEquals(
+				Arrays.asList( userSettings ),
+				SettingsSources.locate( new MapInputs( systemProperties, new HashMap<>() ), null ).getFiles()
+		);
+	}
+
+	@Test
+	public void testPrecedence() throws Exception {
+		final File globalSettings = write(
+				"global-settings.xml",
+				server( "shared", "global" ) + server( "layered", "global" ) + server( "global-only", "global" )
+		);
+		final File projectDirectory = temporaryFolder.newFolder( "project" );
+		new File( projectDirectory, ".mvn" ).mkdir();
+		write(
+				"project/.mvn/settings.xml",
+				server( "shared", "project" ) + server( "layered", "project" ) + server( "project-only", "project" )
+		);
+		final File userSettings = write(
+				"user-settings.xml",
+				server( "shared", "user" ) + server( "user-only", "user" )
+		);
+
+		final Map<String,String> systemProperties = new HashMap<>();
+		systemProperties.put( SettingsSources.GLOBAL_SETTINGS_LOCATION_OVERRIDE, globalSettings.getAbsolutePath() );
+		systemProperties.put( SettingsSources.SETTINGS_LOCATION_OVERRIDE, userSettings.getAbsolutePath() );
+		systemProperties.put(
+				"settings.security",
+				new File( temporaryFolder.getRoot(), "missing-security-settings.xml" ).getAbsolutePath()
+		);
+
+		final SettingsXmlCredentialsProvider provider = new SettingsXmlCredentialsProvider(
+				null,
+				ValueProcessorScanner.INSTANCE,
+				SettingsContents.read( new MapInputs( systemProperties, new HashMap<>() ), projectDirectory ),
+				new ResolutionStatistics(),
+				new CredentialsInterner()
+		);
+
+		assertUser( "user", provider.determineAuthentication( "shared" ) );
+		// the project settings come last, as in Maven 4
+		assertUser( "global", provider.determineAuthentication( "layered" ) );
+		assertUser( "global", provider.determineAuthentication( "global-only" ) );
+		assertUser( "project", provider.determineAuthentication( "project-only" ) );
+		assertUser( "user", provider.determineAuthentication( "user-only" ) );
+		assertNull( provider.determineAuthentication( "unknown" ) );
+	}
+
+	private static void assertUser(String expected, Credentials credentials) {
+		assertEquals( expected, credentials.getUserName() );
+	}
+
+	private static String server(String id, String source) {
+		return "<server><id>" + id + "</id><username>" + source + "</username><password>secret</password></server>";
+	}
+
+	private File write(String path, String servers) throws IOException {
+		final File file = new File( temporaryFolder.getRoot(), path );
+		Files.write(
+				file.toPath(),
+				( "<settings><servers>" + servers + "</servers></settings>" ).getBytes( StandardCharsets.UTF_8 )
+		);
+		return file;
+	}
+
+	private static class MapInputs implements ConfigurationInputs {
+		private final Map<String,String> systemProperties;
+		private final Map<String,String> environment;
+		// Gradle only tracks the inputs read from its own threads
+		private final Thread owner = Thread.currentThread();
+
+		private MapInputs(Map<String,String> systemProperties, Map<String,String> environment) {
+			this.systemProperties = systemProperties;
+			this.environment = environment;
+		}
+
+		@Override
+		public String getSystemProperty(String name) {
+			assertSame( owner, Thread.currentThread() );
+			return systemProperties.get( name );
+		}
+
+		@Override
+		public String getEnvironmentVariable(String name) {
+			assertSame( owner, Thread.currentThread() );
+			return environment.get( name );
+		}
+
+		@Override
+		public byte[] readFile(File file) throws IOException {
+			assertSame( owner, Thread.currentThread() );
+			return SYSTEM.readFile( file );
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SettingsXmlReaderTest {
+
+	@Test
+	public void testServersAmongOtherSections() throws Exception {
+		final List<ServerDefinition> servers = read(
+				"<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+						"<settings xmlns=\"http://maven.apache.org/SETTINGS/1.0.0\">\n" +
+						"  <mirrors><mirror><id>mirror</id><url>http://mirror</url><mirrorOf>*</mirrorOf></mirror></mirrors>\n" +
+						"  <servers>\n" +
+						"    <server>\n" +
+						"      <id> first </id>\n" +
+						"      <username>tron</username>\n" +
+						"      <!-- comment -->\n" +
+						"      <password><![CDATA[a\\{b]]>  c\n d</password>\n" +
+						"      <configuration><id>nested</id></configuration>\n" +
+						"    </server>\n" +
+						"    <server><username>no-id</username></server>\n" +
+						"    <server><id>second</id><password>   </password><passphrase>x</passphrase></server>\n" +
+						"  </servers>\n" +
+						"  <profiles><profile><id>ignored</id></profile></profiles>\n" +
+						"</settings>"
+		);
+
+		assertEquals( 2, servers.size() );
+
+		assertEquals( "first", servers.get( 0 ).getId() );
+		assertEquals( "tron", servers.get( 0 ).getUserName() );
+		assertEquals( "a\\{b c d", servers.get( 0 ).getPassword() );
+		assertNull( servers.get( 0 ).getPrivateKey() );
+
+		assertEquals( "second", servers.get( 1 ).getId() );
+		assertNull( servers.get( 1 ).getPassword() );
+		assertEquals( "x", servers.get( 1 ).getPassphrase() );
+	}
+
+	@Test
+	public void testConfigurationUrls() throws Exception {
+		final List<ServerDefinition> servers = read(
+				"<settings><servers>" +
+						"<server><id>nexus</id><configuration>" +
+						"<url> https://nexus.example.org/repository </url><timeout>10</timeout>" +
+						"<url>https://nexus.example.org:8443/</url>" +
+						"</configuration><password>secret</password></server>" +
+						"<server><id>plain</id></server>" +
+						"</servers></settings>"
+		);
+
+		assertEquals( 2, servers.size() );
+		assertEquals(
+				Arrays.asList( "https://nexus.example.org/repository", "https://nexus.example.org:8443/" ),
+				servers.get( 0 ).getUrls()
+		);
+		assertEquals( "secret", servers.get( 0 ).getPassword() );
+		assertTrue( servers.get( 1 ).getUrls().isEmpty() );
+	}
+
+	@Test
+	public void testMirrors() throws Exception {
+		final List<MirrorDefinition> mirrors = SettingsXmlReader.readMirrorDefinitions(
+				( "<settings><servers><server><id>corporate</id></server></servers><mirrors>" +
+						"<mirror><id>corporate</id><name>Corporate</name><url> https://nexus.example.org/maven </url>" +
+						"<mirrorOf>external:*, !internal</mirrorOf></mirror>" +
+						"<mirror><id>incomplete</id><mirrorOf>*</mirrorOf></mirror>" +
+						"</mirrors></settings>" ).getBytes( StandardCharsets.UTF_8 )
+		);
+
+		assertEquals( 1, mirrors.size() );
+		assertEquals( "corporate", mirrors.get( 0 ).getId() );
+		assertEquals( "https://nexus.example.org/maven", mirrors.get( 0 ).getUrl() );
+		assertEquals( "external:*, !internal", mirrors.get( 0 ).getMirrorOf() );
+		assertFalse( mirrors.get( 0 ).isBlocked() );
+	}
+
+	@Test
+	public void testBlockedMirror() throws Exception {
+		final List<MirrorDefinition> mirrors = SettingsXmlReader.readMirrorDefinitions(
+				( "<settings><mirrors><mirror><id>maven-default-http-blocker</id>" +
+						"<mirrorOf>external:http:*</mirrorOf><url>http://0.0.0.0/</url>" +
+						"<blocked>true</blocked></mirror></mirrors></settings>" ).getBytes( StandardCharsets.UTF_8 )
+		);
+
+		assertEquals( 1, mirrors.size() );
+		assertTrue( mirrors.get( 0 ).isBlocked() );
+	}
+
+	@Test
+	public void testNoServers() throws Exception {
+		assertTrue( read( "<settings><profiles/></settings>" ).isEmpty() );
+	}
+
+	@Test
+	public void testNormalize() {
+		assertNull( SettingsXmlReader.normalize( " \t\n" ) );
+		assertEquals( "a b", SettingsXmlReader.normalize( "a b" ) );
+		assertEquals( "a b c", SettingsXmlReader.normalize( "\n a \t b  c\r\n" ) );
+	}
+
+	private static List<ServerDefinition> read(String xml) throws Exception {
+		return SettingsXmlReader.readServerDefinitions( xml.getBytes( StandardCharsets.UTF_8 ) );
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven.pwd;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.build.publish.auth.maven.TestHelper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class DecryptionPasswordStrategyTest {
+	private static final String MASTER_PASSWORD = "master";
+
+	@Test
+	public void testBulkDecryption() throws Exception {
+		final MavenPasswordCipher cipher = new MavenPasswordCipher();
+		final List<String> encrypted = new ArrayList<>();
+		for ( int i = 0; i < 64; i++ ) {
+			encrypted.add( cipher.encrypt( "password-" + i, MASTER_PASSWORD ) );
+		}
+		// duplicates and values which cannot be decrypted
+		encrypted.add( encrypted.get( 0 ) );
+		encrypted.add( "{c2hvcnQ=}" );
+
+		final DecryptionPasswordStrategy serial = new DecryptionPasswordStrategy( cipher, MASTER_PASSWORD );
+		final Map<String,String> bulk = new DecryptionPasswordStrategy( cipher, MASTER_PASSWORD )
+				.interpretPasswords( encrypted );
+
+		assertEquals( 64, bulk.size() );
+		for ( int i = 0; i < 64; i++ ) {
+			assertEquals( "password-" + i, bulk.get( encrypted.get( i ) ) );
+			assertEquals( serial.interpretPassword( encrypted.get( i ) ), bulk.get( encrypted.get( i ) ) );
+		}
+		assertFalse( bulk.containsKey( encrypted.get( encrypted.size() - 1 ) ) );
+	}
+
+	@Test
+	public void testMasterPasswordFromContent() throws Exception {
+		final byte[] content = Files.readAllBytes( TestHelper.securitySettingsXmlFile().toPath() );
+		// the content is used as is, the file is not read again
+		final File missing = new File( "does-not-exist/settings-security.xml" );
+		final String encrypted = "{hDBdf0HXN5IHCsc+6gEqNuxmSQpybtrhTwRiyn8l5H4=}";
+
+		final PasswordStrategy strategy = PasswordProcessor.INSTANCE.resolvePasswordStrategy( encrypted, missing, content );
+		assertEquals( "xyz", strategy.interpretPassword( encrypted ) );
+		assertNull( PasswordProcessor.INSTANCE.resolvePasswordStrategy( encrypted, missing, null ) );
+		assertNull( PasswordProcessor.INSTANCE.resolvePasswordStrategy( encrypted, missing ) );
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven.pwd;
+
+import java.security.GeneralSecurityException;
+
+import org.hibernate.build.publish.auth.maven.TestHelper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MavenPasswordCipherTest {
+	@Test
+	public void testDecryptMavenEncryptedValues() throws Exception {
+		// encrypted by Maven (i.e. plexus-cipher)
+		final String encryptedMasterPassword = SecuritySettingsXmlReader.readMasterPassword(
+				TestHelper.securitySettingsXmlFile()
+		);
+		final MavenPasswordCipher cipher = new MavenPasswordCipher();
+		final String masterPassword = cipher.decrypt(
+				encryptedMasterPassword,
+				PasswordProcessor.MASTER_PASSWORD_PASS_PHRASE
+		);
+
+		assertEquals( "xyz", cipher.decrypt( "{hDBdf0HXN5IHCsc+6gEqNuxmSQpybtrhTwRiyn8l5H4=}", masterPassword ) );
+		// undecorated
+		assertEquals( "xyz", cipher.decrypt( "hDBdf0HXN5IHCsc+6gEqNuxmSQpybtrhTwRiyn8l5H4=", masterPassword ) );
+		// surrounded by a comment
+		assertEquals( "xyz", cipher.decrypt( "{hDBdf0HXN5IHCsc+6gEqNuxmSQpybtrhTwRiyn8l5H4=} xyz", masterPassword ) );
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		final MavenPasswordCipher cipher = new MavenPasswordCipher();
+		for ( String value : new String[] { "x", "secret", "0123456789abcdef", "p\u00e4ssw\u00f6rd with spaces and {braces}" } ) {
+			final String encrypted = cipher.encrypt( value, "master" );
+			assertTrue( MavenPasswordCipher.isEncrypted( encrypted ) );
+			assertNotEquals( encrypted, cipher.encrypt( value, "master" ) );
+			assertEquals( value, cipher.decrypt( encrypted, "master" ) );
+		}
+	}
+
+	@Test
+	public void testWrongPassPhrase() throws Exception {
+		final MavenPasswordCipher cipher = new MavenPasswordCipher();
+		final String encrypted = cipher.encrypt( "secret", "master" );
+		try {
+			final String decrypted = cipher.decrypt( encrypted, "another master" );
+			// CBC padding checks do not catch every wrong key
+			assertNotEquals( "secret", decrypted );
+		}
+		catch (GeneralSecurityException expected) {
+		}
+
+		try {
+			cipher.decrypt( "{c2hvcnQ=}", "master" );
+			fail( "Expected a too short value to be rejected" );
+		}
+		catch (GeneralSecurityException expected) {
+		}
+	}
+
+	@Test
+	public void testIsEncrypted() {
+		assertTrue( MavenPasswordCipher.isEncrypted( "{abc}" ) );
+		assertTrue( MavenPasswordCipher.isEncrypted( "prefix {abc} suffix" ) );
+		assertTrue( MavenPasswordCipher.isEncrypted( "{}}" ) );
+
+		assertFalse( MavenPasswordCipher.isEncrypted( null ) );
+		assertFalse( MavenPasswordCipher.isEncrypted( "" ) );
+		assertFalse( MavenPasswordCipher.isEncrypted( "secret" ) );
+		assertFalse( MavenPasswordCipher.isEncrypted( "{}" ) );
+		assertFalse( MavenPasswordCipher.isEncrypted( "{abc\\}" ) );
+		assertFalse( MavenPasswordCipher.isEncrypted( "{ab\nc}" ) );
+		assertFalse( MavenPasswordCipher.isEncrypted( "${user.name" ) );
+	}
+}
@@ -0,0 +1,71 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven.pwd;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.hibernate.build.publish.auth.maven.TestHelper;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class SecuritySettingsXmlReaderTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testMasterPassword() throws Exception {
+		assertEquals(
+				"{LEn+/2s74VwHPOesICBLa0m94CBW50luRg3Y9NX8DaY=}",
+				SecuritySettingsXmlReader.readMasterPassword( TestHelper.securitySettingsXmlFile() )
+		);
+		assertNull( SecuritySettingsXmlReader.readMasterPassword( write( "empty.xml", "" ) ) );
+	}
+
+	@Test
+	public void testMasterPasswordFromContent() throws Exception {
+		assertEquals(
+				"{master}",
+				SecuritySettingsXmlReader.readMasterPassword(
+						"<settingsSecurity><master>{master}</master></settingsSecurity>".getBytes( StandardCharsets.UTF_8 )
+				)
+		);
+	}
+
+	@Test
+	public void testRelocation() throws Exception {
+		final File relocated = write( "relocated.xml", "<master>\n  {relocated}\n</master>" );
+		final File relocating = write( "relocating.xml", "<relocation>" + relocated.getAbsolutePath() + "</relocation>" );
+		assertEquals( "{relocated}", SecuritySettingsXmlReader.readMasterPassword( relocating ) );
+
+		final File cycle = new File( temporaryFolder.getRoot(), "cycle.xml" );
+		write( "cycle.xml", "<relocation>" + cycle.getAbsolutePath() + "</relocation>" );
+		try {
+			SecuritySettingsXmlReader.readMasterPassword( cycle );
+			fail( "Expected relocation cycles to be detected" );
+		}
+		catch (IOException expected) {
+		}
+	}
+
+	private File write(String name, String content) throws IOException {
+		final File file = new File( temporaryFolder.getRoot(), name );
+		Files.write(
+				file.toPath(),
+				( "<settingsSecurity>" + content + "</settingsSecurity>" ).getBytes( StandardCharsets.UTF_8 )
+		);
+		return file;
+	}
+}
@@ -61,4 +61,19 @@ public class SimplePropertyMapTest {
         assertFalse(optional.isPresent());
     }
 
+    @Test
+    public void systemPropertyStartingWithEnv() {
+        final String key = "envoy.token";
+        final String value = "abc";
+        System.setProperty(key, value);
+        try {
+            final PropertyMap propertyMap = new SimplePropertyMap();
+            final Optional<String> optional = propertyMap.get(key);
+            assertTrue(optional.isPresent());
+            assertEquals(value, optional.get());
+        } finally {
+            System.clearProperty(key);
+        }
+    }
+
 }
@@ -0,0 +1,91 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.auth.maven.pwd;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ValueProcessorScannerTest {
+
+	private final PropertyMap properties = new PropertyMap() {
+		private final Map<String, String> values = new HashMap<>();
+		{
+			values.put( "user.name", "tron" );
+			values.put( "env.TOKEN", "a$b\\{c" );
+			values.put( "a-b_c.d", "x" );
+		}
+
+		@Override
+		public Optional<String> get(String key) {
+			return Optional.ofNullable( values.get( key ) );
+		}
+	};
+
+	@Test
+	public void testNothingToProcess() {
+		final String value = "plain {value}";
+		assertSame( value, ValueProcessorScanner.scan( value, properties, true ) );
+		assertNull( ValueProcessorScanner.scan( null, properties, true ) );
+	}
+
+	@Test
+	public void testExpansion() {
+		assertEquals( "tron", expand( "${user.name}" ) );
+		assertEquals( "pre-tron-x-post", expand( "pre-${user.name}-${a-b_c.d}-post" ) );
+		assertEquals( "a$b\\{c", expand( "${env.TOKEN}" ) );
+		assertEquals( "tron\\{", expand( "${user.name}\\{" ) );
+	}
+
+	@Test
+	public void testHasPlaceholders() {
+		assertTrue( ValueProcessorScanner.hasPlaceholders( "pre-${user.name}" ) );
+		assertTrue( ValueProcessorScanner.hasPlaceholders( "$${user.name}" ) );
+		assertFalse( ValueProcessorScanner.hasPlaceholders( "{encrypted}" ) );
+		assertFalse( ValueProcessorScanner.hasPlaceholders( "${user name}" ) );
+		assertFalse( ValueProcessorScanner.hasPlaceholders( "$" ) );
+		assertFalse( ValueProcessorScanner.hasPlaceholders( null ) );
+	}
+
+	@Test
+	public void testUnresolvableAndMalformedPlaceholders() {
+		assertEquals( "${unknown}-tron", expand( "${unknown}-${user.name}" ) );
+		assertEquals( "${}", expand( "${}" ) );
+		assertEquals( "${user name}", expand( "${user name}" ) );
+		assertEquals( "${user.name", expand( "${user.name" ) );
+		assertEquals( "$${tron}", expand( "$${${user.name}}" ) );
+		assertEquals( "$", expand( "$" ) );
+	}
+
+	@Test
+	public void testUnescape() {
+		assertEquals( "{pass}", ValueProcessorScanner.unescape( "\\{pass\\}" ) );
+		assertEquals( "\\{", ValueProcessorScanner.unescape( "\\\\{" ) );
+		assertEquals( "a\\b\\", ValueProcessorScanner.unescape( "a\\b\\" ) );
+		assertEquals( "${user.name}", ValueProcessorScanner.unescape( "${user.name}" ) );
+		assertEquals( "{pass}", DefaultPasswordStrategy.INSTANCE.interpretPassword( "\\{pass\\}" ) );
+	}
+
+	@Test
+	public void testExpansionAndUnescape() {
+		assertEquals( "{tron}", ValueProcessorScanner.scan( "\\{${user.name}\\}", properties, true ) );
+		assertEquals( "a$b{c", ValueProcessorScanner.scan( "${env.TOKEN}", properties, true ) );
+		assertEquals( "${user.name}", ValueProcessorScanner.scan( "$\\{user.name}", properties, true ) );
+	}
+
+	private String expand(String value) {
+		return ValueProcessorScanner.scan( value, properties, false );
+	}
+}
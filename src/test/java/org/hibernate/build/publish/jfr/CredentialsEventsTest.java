@@ -0,0 +1,111 @@
+/*
+ * Hibernate, Relational Persistence for Idiomatic Java
+ *
+ * License: GNU Lesser General Public License (LGPL), version 2.1 or later
+ * See the lgpl.txt file in the root directory or http://www.gnu.org/licenses/lgpl-2.1.html
+ */
+package org.hibernate.build.publish.jfr;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.testfixtures.ProjectBuilder;
+
+import org.hibernate.build.publish.auth.Credentials;
+import org.hibernate.build.publish.auth.CredentialsProvider;
+import org.hibernate.build.publish.auth.CredentialsProviderRegistry;
+import org.hibernate.build.publish.util.Helper;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.ValueDescriptor;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class CredentialsEventsTest {
+	private static final String PASSWORD = "top-secret";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testDisabledWithoutRecording() {
+		assertSame( CredentialsEvents.DISABLED, CredentialsEvents.settingsRead( new File( "settings.xml" ) ) );
+		assertSame( CredentialsEvents.DISABLED, CredentialsEvents.passwordDecryption( "nexus" ) );
+		assertSame( CredentialsEvents.DISABLED, CredentialsEvents.lookup( "nexus", repoId -> null ) );
+		assertSame( CredentialsEvents.DISABLED, CredentialsEvents.application( "snapshots", "https" ) );
+	}
+
+	@Test
+	public void testApplicationEvent() throws Exception {
+		assumeTrue( FlightRecorder.isAvailable() );
+
+		final CredentialsProviderRegistry registry = new CredentialsProviderRegistry( new NexusProvider() );
+		registry.setMatchByUrl( true );
+		registry.mapUrl( "https://nexus.example.org/repository", "nexus" );
+
+		final Project project = ProjectBuilder.builder().build();
+		final MavenArtifactRepository repository = project.getRepositories().maven( repo -> {
+			repo.setName( "snapshots" );
+			repo.setUrl( URI.create( "https://nexus.example.org/repository/snapshots" ) );
+		} );
+
+		final File dump = temporaryFolder.newFile( "events.jfr" );
+		try ( Recording recording = new Recording() ) {
+			recording.enable( FlightRecorderEvents.ApplicationEvent.class );
+			recording.enable( FlightRecorderEvents.LookupEvent.class );
+			recording.start();
+			Helper.applyCredentials( repository, registry, project.getPath() );
+			recording.stop();
+			recording.dump( dump.toPath() );
+		}
+
+		final List<RecordedEvent> applications = new ArrayList<>();
+		for ( RecordedEvent event : RecordingFile.readAllEvents( dump.toPath() ) ) {
+			if ( !event.getEventType().getName().startsWith( "org.hibernate.build.mavenRepoAuth." ) ) {
+				continue;
+			}
+			for ( ValueDescriptor field : event.getFields() ) {
+				final Object value = event.getValue( field.getName() );
+				assertFalse( String.valueOf( value ).contains( PASSWORD ) );
+			}
+			if ( event.getEventType().getName().endsWith( ".Application" ) ) {
+				applications.add( event );
+			}
+		}
+
+		assertEquals( 1, applications.size() );
+		final RecordedEvent application = applications.get( 0 );
+		assertEquals( "snapshots", application.getString( "repoName" ) );
+		assertEquals( "nexus", application.getString( "repoId" ) );
+		assertEquals( NexusProvider.class.getName(), application.getClass( "providerClass" ).getName() );
+		assertTrue( application.getBoolean( "applied" ) );
+	}
+
+	private static class NexusProvider implements CredentialsProvider {
+		@Override
+		public Credentials determineAuthentication(String repoId) {
+			if ( !"nexus".equals( repoId ) ) {
+				return null;
+			}
+			final Credentials credentials = new Credentials();
+			credentials.setUserName( "tron" );
+			credentials.setPassword( PASSWORD );
+			return credentials;
+		}
+	}
+}